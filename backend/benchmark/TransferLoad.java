@@ -0,0 +1,206 @@
+// Load test of POST /api/transfers, for comparing the transfer paths of a running instance:
+// the default row-locking path, the group commit pipeline (transfer.group-commit.enabled=true)
+// and the ledger engine (ledger.enabled=true). Start the application once per path with rate limiting
+// off, run this against it and compare throughput and latency percentiles.
+//
+// Each worker sends transfers of 0.01 from a random account of a random benchmark user to another random
+// benchmark account; with -Dhot=true every transfer goes to the same account instead (balance shards).
+// Requests during the warmup are sent but not measured. At the end the balances are summed to check
+// that no money was created or lost.
+//
+// Usage:
+//   java -jar target/MiniBankingApp-*.jar --rate-limit.enabled=false --concurrency-limit.enabled=false \
+//        [--transfer.group-commit.enabled=true | --ledger.enabled=true]
+//   java -Dbase=http://localhost:8080 -Dusers=32 -Dconcurrency=64 -Dwarmup=10 -Dseconds=60 \
+//        backend/benchmark/TransferLoad.java
+// Requires JDK 21+ (single-file source launch, virtual threads). Creates users named bench-<run>-<n>.
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class TransferLoad {
+
+    private static final String BASE = System.getProperty("base", "http://localhost:8080");
+    private static final int USERS = Integer.getInteger("users", 32);
+    private static final int ACCOUNTS_PER_USER = 2;
+    private static final int CONCURRENCY = Integer.getInteger("concurrency", 64);
+    private static final int WARMUP_SECONDS = Integer.getInteger("warmup", 10);
+    private static final int MEASURED_SECONDS = Integer.getInteger("seconds", 60);
+    private static final boolean HOT = Boolean.getBoolean("hot");
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000.00");
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*\"([0-9a-f-]{36})\"");
+    private static final Pattern BALANCE = Pattern.compile("\"balance\"\\s*:\\s*([0-9.]+)");
+
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    record BenchUser(String token, List<String> accountIds) {}
+
+    public static void main(String[] args) throws Exception {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        System.out.printf("Setting up %d users with %d accounts each against %s%n", USERS, ACCOUNTS_PER_USER, BASE);
+        List<BenchUser> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(createUser("bench-" + run + "-" + i));
+        }
+        List<String> accounts = users.stream().flatMap(user -> user.accountIds().stream()).toList();
+        String hotAccount = accounts.get(0);
+
+        long warmupEnd = System.nanoTime() + Duration.ofSeconds(WARMUP_SECONDS).toNanos();
+        long end = warmupEnd + Duration.ofSeconds(MEASURED_SECONDS).toNanos();
+        Map<Integer, AtomicLong> statuses = new ConcurrentHashMap<>();
+        List<long[]> latencies = new ArrayList<>();
+
+        System.out.printf("Running %d workers, %ds warmup, %ds measured%s%n",
+                CONCURRENCY, WARMUP_SECONDS, MEASURED_SECONDS, HOT ? ", all transfers to one account" : "");
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < CONCURRENCY; w++) {
+                long[] samples = new long[1 << 16];
+                latencies.add(samples);
+                int worker = w;
+                workers.submit(() -> {
+                    long[] mine = samples;
+                    int count = 0;
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (true) {
+                        long startedAt = System.nanoTime();
+                        if (startedAt - end > 0) {
+                            break;
+                        }
+                        BenchUser user = users.get(random.nextInt(users.size()));
+                        String from = user.accountIds().get(random.nextInt(ACCOUNTS_PER_USER));
+                        String to = HOT && !from.equals(hotAccount) ? hotAccount : accounts.get(random.nextInt(accounts.size()));
+                        if (to.equals(from)) {
+                            continue;
+                        }
+                        int status = transfer(user.token(), from, to);
+                        long finishedAt = System.nanoTime();
+                        if (startedAt - warmupEnd < 0) {
+                            continue;
+                        }
+                        statuses.computeIfAbsent(status, s -> new AtomicLong()).incrementAndGet();
+                        if (status == 200) {
+                            if (count == mine.length) {
+                                mine = Arrays.copyOf(mine, mine.length * 2);
+                                latencies.set(worker, mine);
+                            }
+                            mine[count++] = finishedAt - startedAt;
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+
+        report(statuses, latencies);
+        checkBalances(users);
+    }
+
+    private static BenchUser createUser(String username) throws Exception {
+        String credentials = "{\"username\":\"" + username + "\",\"password\":\"benchmark\"";
+        send("POST", "/api/users/register", null, credentials + ",\"email\":\"" + username + "@example.com\"}", 201, 200);
+        String login = send("POST", "/api/users/login", null, credentials + "}", 200);
+        String token = extract(TOKEN, login);
+
+        List<String> accountIds = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS_PER_USER; i++) {
+            String account = send("POST", "/api/accounts", token, "{\"name\":\"Benchmark " + i +
+                    "\",\"accountType\":\"TRY\",\"initialBalance\":" + INITIAL_BALANCE + "}", 201, 200);
+            accountIds.add(extract(ID, account));
+        }
+        return new BenchUser(token, accountIds);
+    }
+
+    private static int transfer(String token, String from, String to) {
+        HttpRequest request = request("POST", "/api/transfers", token,
+                "{\"fromAccountId\":\"" + from + "\",\"toAccountId\":\"" + to + "\",\"amount\":0.01}");
+        try {
+            return HTTP.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static void report(Map<Integer, AtomicLong> statuses, List<long[]> latencies) {
+        long[] all = latencies.stream()
+                // Unused slots at the end of each worker's samples are zero
+                .flatMapToLong(samples -> Arrays.stream(samples).takeWhile(sample -> sample > 0))
+                .sorted()
+                .toArray();
+        System.out.printf("%nStatus codes (-1 = connection error): %s%n", new TreeMap<>(statuses));
+        System.out.printf("Successful transfers: %d, %.1f per second%n", all.length, all.length / (double) MEASURED_SECONDS);
+        if (all.length == 0) {
+            return;
+        }
+        System.out.printf("Latency ms: p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f%n",
+                percentile(all, 0.50), percentile(all, 0.90), percentile(all, 0.99), percentile(all, 0.999),
+                all[all.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+    }
+
+    /**
+     * Transfers only move money between benchmark accounts, so their total must not change
+     */
+    private static void checkBalances(List<BenchUser> users) throws Exception {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BenchUser user : users) {
+            for (String accountId : user.accountIds()) {
+                total = total.add(new BigDecimal(extract(BALANCE, send("GET", "/api/accounts/" + accountId, user.token(), null, 200))));
+            }
+        }
+        BigDecimal expected = INITIAL_BALANCE.multiply(BigDecimal.valueOf((long) USERS * ACCOUNTS_PER_USER));
+        System.out.printf("Total balance %s, expected %s%s%n", total, expected,
+                total.compareTo(expected) == 0 ? "" : "  <-- MISMATCH");
+    }
+
+    private static String send(String method, String path, String token, String body, int... expectedStatuses) throws Exception {
+        HttpResponse<String> response = HTTP.send(request(method, path, token, body), HttpResponse.BodyHandlers.ofString());
+        if (Arrays.stream(expectedStatuses).noneMatch(status -> status == response.statusCode())) {
+            throw new IllegalStateException(method + " " + path + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private static HttpRequest request(String method, String path, String token, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(BASE + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private static String extract(Pattern pattern, String json) {
+        Matcher matcher = pattern.matcher(json);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Unexpected response: " + json);
+        }
+        return matcher.group(1);
+    }
+}
@@ -0,0 +1,12 @@
+package com.mini.MiniBankingApp.application.dto;
+
+public enum BatchTransferMode {
+    /**
+     * Every transfer in the batch is committed, or none of them is
+     */
+    ALL_OR_NOTHING,
+    /**
+     * Valid transfers are committed and invalid ones are reported individually
+     */
+    BEST_EFFORT
+}
@@ -0,0 +1,26 @@
+package com.mini.MiniBankingApp.application.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Schema(description = "Batch money transfer request")
+public class BatchTransferRequest {
+    
+    @NotEmpty(message = "At least one transfer is required")
+    @Size(max = 1000, message = "A batch can contain at most 1000 transfers")
+    @Schema(description = "Transfers to execute, in order")
+    private List<@Valid MoneyTransferRequest> transfers;
+    
+    @NotNull(message = "Batch mode is required")
+    @Schema(description = "Batch mode", example = "ALL_OR_NOTHING", allowableValues = {"ALL_OR_NOTHING", "BEST_EFFORT"})
+    private BatchTransferMode mode = BatchTransferMode.ALL_OR_NOTHING;
+}
@@ -0,0 +1,30 @@
+package com.mini.MiniBankingApp.application.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@Schema(description = "Batch money transfer response")
+public class BatchTransferResponse {
+    
+    @Schema(description = "Batch mode", example = "ALL_OR_NOTHING")
+    private BatchTransferMode mode;
+    
+    @Schema(description = "Number of transfers in the batch", example = "10")
+    private int totalCount;
+    
+    @Schema(description = "Number of committed transfers", example = "9")
+    private int successCount;
+    
+    @Schema(description = "Number of failed or rolled back transfers", example = "1")
+    private int failureCount;
+    
+    @Schema(description = "Per-transfer results, in request order")
+    private List<BatchTransferItemResult> results;
+}
@@ -0,0 +1,20 @@
+package com.mini.MiniBankingApp.application.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum TransactionExportFormat {
+    /**
+     * Comma separated values with a header line
+     */
+    CSV("text/csv", "csv"),
+    /**
+     * One JSON object per line
+     */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String mediaType;
+    private final String fileExtension;
+}
@@ -0,0 +1,17 @@
+package com.mini.MiniBankingApp.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionHistoryCursorResponse {
+    private List<TransactionHistoryResponse> transactions;
+    private int pageSize;
+    private String nextCursor;
+    private boolean hasNext;
+}
@@ -26,6 +26,8 @@ public interface TransferMapper {
     default String getTransactionMessage(Transaction transaction) {
         if (transaction.isSuccessful()) {
             return "Transfer completed successfully";
+        } else if (transaction.isPending()) {
+            return "Transfer accepted and waiting to be executed";
         } else {
             return "Transfer failed";
         }
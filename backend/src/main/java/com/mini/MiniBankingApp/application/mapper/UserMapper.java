@@ -3,6 +3,7 @@ package com.mini.MiniBankingApp.application.mapper;
 import com.mini.MiniBankingApp.application.dto.UserRegistrationRequest;
 import com.mini.MiniBankingApp.application.dto.UserResponse;
 import com.mini.MiniBankingApp.domain.user.User;
+import com.mini.MiniBankingApp.infrastructure.projection.UserSummary;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -22,4 +23,9 @@ public interface UserMapper {
      * Maps User domain entity to UserResponse DTO
      */
     UserResponse toResponse(User user);
+    
+    /**
+     * Maps a cached UserSummary to UserResponse DTO
+     */
+    UserResponse toResponse(UserSummary summary);
 }
\ No newline at end of file
@@ -3,13 +3,14 @@ package com.mini.MiniBankingApp.application.service;
 import com.mini.MiniBankingApp.application.dto.*;
 import com.mini.MiniBankingApp.application.mapper.AccountMapper;
 import com.mini.MiniBankingApp.domain.account.*;
-import com.mini.MiniBankingApp.domain.user.User;
 import com.mini.MiniBankingApp.exception.AccountNotFoundException;
 import com.mini.MiniBankingApp.exception.UnauthorizedAccountAccessException;
-import com.mini.MiniBankingApp.exception.UserNotFoundException;
+import com.mini.MiniBankingApp.infrastructure.ledger.LedgerEngine;
+import com.mini.MiniBankingApp.infrastructure.repository.AccountBalanceShardRepository;
 import com.mini.MiniBankingApp.infrastructure.repository.AccountRepository;
-import com.mini.MiniBankingApp.infrastructure.repository.UserRepository;
+import com.mini.MiniBankingApp.infrastructure.security.AccountOwnershipResolver;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,79 +24,93 @@ import java.util.UUID;
 public class AccountService {
     
     private final AccountRepository accountRepository;
-    private final UserRepository userRepository;
     private final AccountMapper accountMapper;
+    private final AccountOwnershipResolver accountOwnershipResolver;
+    private final ObjectProvider<LedgerEngine> ledgerEngine;
+    private final HotAccountBalances hotAccountBalances;
+    private final AccountBalanceShardRepository accountBalanceShardRepository;
     
-    public AccountResponse createAccount(String username, AccountCreateRequest request) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
-        
+    public AccountResponse createAccount(UUID userId, AccountCreateRequest request) {
         String accountNumber = generateAccountNumber();
         
         Account account = createAccountByType(
                 request.getAccountType(),
-                user.getId(),
+                userId,
                 accountNumber,
                 request.getName(),
                 request.getInitialBalance()
         );
         
         Account savedAccount = accountRepository.save(account);
-        return accountMapper.toResponse(savedAccount);
+        ledgerEngine.ifAvailable(ledger -> ledger.registerAccount(savedAccount));
+        return toResponse(savedAccount);
     }
     
     @Transactional(readOnly = true)
-    public List<AccountResponse> searchAccounts(String username, AccountSearchRequest request) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
-        
+    public List<AccountResponse> searchAccounts(UUID userId, AccountSearchRequest request) {
         List<Account> accounts = accountRepository.searchAccounts(
-                user.getId(),
+                userId,
                 request.getNumber(),
                 request.getName()
         );
         
         return accounts.stream()
-                .map(accountMapper::toResponse)
+                .map(this::toResponse)
                 .toList();
     }
     
-    public AccountResponse updateAccount(String username, UUID accountId, AccountUpdateRequest request) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
-        
-        Account account = accountRepository.findByIdAndUserId(accountId, user.getId())
-                .orElseThrow(() -> new AccountNotFoundException("Account not found or access denied"));
+    public AccountResponse updateAccount(UUID userId, UUID accountId, AccountUpdateRequest request) {
+        Account account = loadForWrite(userId, accountId);
         
         account.changeName(request.getName());
         Account savedAccount = accountRepository.save(account);
         
-        return accountMapper.toResponse(savedAccount);
+        return toResponse(savedAccount);
     }
     
-    public void deleteAccount(String username, UUID accountId) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+    public void deleteAccount(UUID userId, UUID accountId) {
+        if (ledgerEngine.getIfAvailable() != null) {
+            // The ledger balance may still differ from the stored one and its partitions keep no tombstones
+            throw new IllegalStateException("Accounts cannot be deleted while the ledger engine is enabled");
+        }
         
-        Account account = accountRepository.findByIdAndUserId(accountId, user.getId())
-                .orElseThrow(() -> new AccountNotFoundException("Account not found or access denied"));
+        Account account = loadForWrite(userId, accountId);
         
-        if (account.getBalance().compareTo(BigDecimal.ZERO) != 0) {
+        if (hotAccountBalances.totalBalance(account).compareTo(BigDecimal.ZERO) != 0) {
             throw new IllegalStateException("Cannot delete account with non-zero balance");
         }
         
         accountRepository.delete(account);
+        accountBalanceShardRepository.deleteByAccountId(accountId);
+        accountOwnershipResolver.forget(accountId);
     }
     
     @Transactional(readOnly = true)
-    public AccountResponse getAccountDetails(String username, UUID accountId) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
-        
-        Account account = accountRepository.findByIdAndUserId(accountId, user.getId())
+    public AccountResponse getAccountDetails(UUID userId, UUID accountId) {
+        Account account = accountOwnershipResolver.findOwnedAccount(userId, accountId)
                 .orElseThrow(() -> new AccountNotFoundException("Account not found or access denied"));
         
-        return accountMapper.toResponse(account);
+        return toResponse(account);
+    }
+    
+    /**
+     * Loads the account in the current write transaction. The one the access check kept on the request
+     * is detached and may be outdated by now, merging it would fail on its version.
+     */
+    private Account loadForWrite(UUID userId, UUID accountId) {
+        return accountRepository.findByIdAndUserId(accountId, userId)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found or access denied"));
+    }
+    
+    /**
+     * Maps the account, reporting the total balance for hot accounts whose shards hold part of it
+     */
+    private AccountResponse toResponse(Account account) {
+        AccountResponse response = accountMapper.toResponse(account);
+        if (hotAccountBalances.isHot(account.getId())) {
+            response.setBalance(hotAccountBalances.totalBalance(account));
+        }
+        return response;
     }
     
     private Account createAccountByType(String accountType, UUID userId, String number, String name, BigDecimal initialBalance) {
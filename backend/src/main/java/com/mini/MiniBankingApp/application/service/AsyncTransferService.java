@@ -0,0 +1,210 @@
+package com.mini.MiniBankingApp.application.service;
+
+import com.mini.MiniBankingApp.domain.transaction.Transaction;
+import com.mini.MiniBankingApp.exception.ServiceOverloadedException;
+import com.mini.MiniBankingApp.infrastructure.config.TransferProperties;
+import com.mini.MiniBankingApp.infrastructure.ledger.LedgerEngine;
+import com.mini.MiniBankingApp.infrastructure.projection.AccountOwner;
+import com.mini.MiniBankingApp.infrastructure.repository.AccountRepository;
+import com.mini.MiniBankingApp.infrastructure.repository.TransactionRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Accepts transfers as PENDING rows and executes them in the background, so request threads never wait
+ * on account locks. Each transfer runs on its own virtual thread; a semaphore sized from the connection
+ * pool caps how many of them hold a connection at once, the rest wait cheaply for a permit.
+ * Pending rows survive a restart and are resumed in batches once the application is ready.
+ */
+@Service
+@Slf4j
+public class AsyncTransferService {
+
+    private static final int DEFAULT_MAX_CONCURRENCY = 10;
+
+    private final MoneyTransferService moneyTransferService;
+    private final TransactionRepository transactionRepository;
+    private final AccountRepository accountRepository;
+    private final ObjectProvider<LedgerEngine> ledgerEngine;
+    private final TransferProperties.Async properties;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore connectionPermits;
+    private final AtomicInteger backlog = new AtomicInteger();
+
+    private volatile boolean stopping;
+
+    public AsyncTransferService(MoneyTransferService moneyTransferService,
+                                TransactionRepository transactionRepository,
+                                AccountRepository accountRepository,
+                                ObjectProvider<LedgerEngine> ledgerEngine,
+                                TransferProperties transferProperties,
+                                DataSource dataSource,
+                                MeterRegistry meterRegistry) {
+        this.moneyTransferService = moneyTransferService;
+        this.transactionRepository = transactionRepository;
+        this.accountRepository = accountRepository;
+        this.ledgerEngine = ledgerEngine;
+        this.properties = transferProperties.getAsync();
+        this.connectionPermits = new Semaphore(maxConcurrency(properties, dataSource));
+
+        Gauge.builder("transfer.async.backlog", backlog, AtomicInteger::get)
+                .description("Asynchronous transfers accepted but not finished yet")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records the transfer as PENDING and queues it for execution
+     * @return the pending transaction, its ID is used to poll the outcome
+     */
+    public Transaction submit(UUID userId, UUID fromAccountId, UUID toAccountId, BigDecimal amount) {
+        if (ledgerEngine.getIfAvailable() != null) {
+            throw new IllegalStateException("Asynchronous transfers are not supported while the ledger engine is enabled");
+        }
+        if (backlog.incrementAndGet() > properties.getQueueCapacity()) {
+            backlog.decrementAndGet();
+            throw new ServiceOverloadedException("Asynchronous transfer queue is full", properties.getRetryAfter());
+        }
+
+        Transaction pending;
+        try {
+            pending = moneyTransferService.createPendingTransfer(fromAccountId, toAccountId, amount);
+        } catch (RuntimeException e) {
+            backlog.decrementAndGet();
+            throw e;
+        }
+
+        execute(userId, pending, () -> {});
+        return pending;
+    }
+
+    /**
+     * Resumes the transfers left pending by a previous run, on this or another instance, in the background.
+     * Executing a transfer claims its row first, so one picked up twice still runs once.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingTransfers() {
+        if (ledgerEngine.getIfAvailable() != null) {
+            return;
+        }
+        executor.execute(this::resumeStalePendingTransfers);
+    }
+
+    /**
+     * Claims stale pending transfers a batch at a time and waits for each batch before claiming the next,
+     * so a large backlog after an outage is neither read at once nor queued at once. Instances starting
+     * together claim disjoint batches, and transfers younger than the grace period are left alone.
+     */
+    private void resumeStalePendingTransfers() {
+        int resumed = 0;
+        try {
+            while (!stopping) {
+                LocalDateTime now = LocalDateTime.now();
+                List<Transaction> batch = transactionRepository.claimStalePending(
+                        now.minus(properties.getResumeGracePeriod()), now, properties.getResumeBatchSize());
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                // Ownership was checked on submission and accounts never change owner
+                Map<UUID, UUID> owners = accountRepository.findOwnersByIdIn(
+                                batch.stream().map(Transaction::getFromAccountId).collect(Collectors.toSet()))
+                        .stream()
+                        .collect(Collectors.toMap(AccountOwner::id, AccountOwner::userId));
+
+                CountDownLatch done = new CountDownLatch(batch.size());
+                for (Transaction pending : batch) {
+                    backlog.incrementAndGet();
+                    execute(owners.get(pending.getFromAccountId()), pending, done::countDown);
+                }
+                done.await();
+                resumed += batch.size();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // Unclaimed transfers are resumed by the next instance that starts once the grace period passed
+            log.error("Resuming pending transfers stopped after {}: {}", resumed, e.getMessage());
+            return;
+        }
+        if (resumed > 0) {
+            log.info("Resumed {} pending transfers", resumed);
+        }
+    }
+
+    /**
+     * Stops taking permits and waits for the executing transfers, the queued ones stay pending for the next start
+     */
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(properties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Asynchronous transfers still running after {}, they are resumed on the next start",
+                        properties.getShutdownTimeout());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void execute(UUID userId, Transaction pending, Runnable onDone) {
+        executor.execute(() -> {
+            try {
+                connectionPermits.acquire();
+                try {
+                    if (!stopping) {
+                        // An unknown owner means the source account is gone, the transfer fails like any other
+                        moneyTransferService.completePendingTransfer(userId, pending);
+                    }
+                } finally {
+                    connectionPermits.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Asynchronous transfer {} could not be completed: {}", pending.getId(), e.getMessage());
+            } finally {
+                backlog.decrementAndGet();
+                onDone.run();
+            }
+        });
+    }
+
+    private static int maxConcurrency(TransferProperties.Async properties, DataSource dataSource) {
+        if (properties.getMaxConcurrency() > 0) {
+            return properties.getMaxConcurrency();
+        }
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                // Leave half of the pool to synchronous requests
+                return Math.max(1, dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize() / 2);
+            }
+        } catch (SQLException e) {
+            log.debug("Could not read the connection pool size: {}", e.getMessage());
+        }
+        return DEFAULT_MAX_CONCURRENCY;
+    }
+}
@@ -0,0 +1,165 @@
+package com.mini.MiniBankingApp.application.service;
+
+import com.mini.MiniBankingApp.domain.account.Account;
+import com.mini.MiniBankingApp.domain.transaction.Transaction;
+import com.mini.MiniBankingApp.exception.AccountNotFoundException;
+import com.mini.MiniBankingApp.exception.CurrencyMismatchException;
+import com.mini.MiniBankingApp.infrastructure.metrics.TransferMetrics;
+import com.mini.MiniBankingApp.infrastructure.projection.AccountOwner;
+import com.mini.MiniBankingApp.infrastructure.repository.AccountRepository;
+import com.mini.MiniBankingApp.infrastructure.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies many transfers inside the caller's database transaction.
+ * Source ownership is checked with a plain read first, then the accounts of the owned transfers are
+ * loaded and row-locked with one ordered query, so a caller cannot lock accounts of others. Every transfer
+ * is validated and applied in memory on its own, so a rejected transfer never touches the balances.
+ */
+@Component
+@RequiredArgsConstructor
+public class BatchTransferProcessor {
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransferMetrics transferMetrics;
+    private final HotAccountBalances hotAccountBalances;
+
+    /**
+     * Applies the commands in order against row-locked accounts. Must run inside a transaction.
+     * @return one outcome per command, in command order
+     */
+    public List<TransferOutcome> apply(List<TransferCommand> commands) {
+        Map<UUID, Account> accounts = lockAccounts(commands);
+        Map<SourceAccess, Boolean> verifiedSources = new HashMap<>();
+
+        List<TransferOutcome> outcomes = new ArrayList<>(commands.size());
+        for (TransferCommand command : commands) {
+            outcomes.add(applyOne(command, accounts, verifiedSources));
+        }
+        return outcomes;
+    }
+
+    /**
+     * Persists the recorded transaction rows of the outcomes.
+     * IDs come from the pooled sequence without a round trip and Hibernate
+     * writes the rows as JDBC batch inserts when the transaction flushes.
+     */
+    public void persist(List<TransferOutcome> outcomes) {
+        List<Transaction> transactions = outcomes.stream()
+                .map(TransferOutcome::transaction)
+                .filter(Objects::nonNull)
+                .toList();
+
+        transactionRepository.saveAll(transactions);
+    }
+
+    /**
+     * Locks the accounts of the transfers whose source the caller owns, except hot accounts that only
+     * receive, those are credited through their shards and read without a lock.
+     * Transfers from other accounts find no source and are rejected by applyOne.
+     */
+    private Map<UUID, Account> lockAccounts(List<TransferCommand> commands) {
+        Map<UUID, UUID> owners = readOwners(commands);
+        List<TransferCommand> owned = commands.stream()
+                .filter(command -> command.userId().equals(owners.get(command.fromAccountId())))
+                .toList();
+
+        Set<UUID> lockedIds = new HashSet<>();
+        Set<UUID> unlockedIds = new HashSet<>();
+        for (TransferCommand command : owned) {
+            lockedIds.add(command.fromAccountId());
+        }
+        for (TransferCommand command : owned) {
+            UUID toAccountId = command.toAccountId();
+            if (!lockedIds.contains(toAccountId)) {
+                (hotAccountBalances.isHot(toAccountId) ? unlockedIds : lockedIds).add(toAccountId);
+            }
+        }
+
+        if (lockedIds.isEmpty()) {
+            return Map.of();
+        }
+        long startedAt = System.nanoTime();
+        List<Account> accounts = new ArrayList<>(accountRepository.findAllByIdForUpdate(lockedIds));
+        transferMetrics.recordLockWait(System.nanoTime() - startedAt);
+        if (!unlockedIds.isEmpty()) {
+            accounts.addAll(accountRepository.findAllById(unlockedIds));
+        }
+
+        return accounts.stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity()));
+    }
+
+    /**
+     * Owner of every source account, read without loading the entities so the later locking
+     * query returns fresh rows. Accounts never change owner, so the answer stays valid under the lock.
+     */
+    private Map<UUID, UUID> readOwners(List<TransferCommand> commands) {
+        Set<UUID> sourceIds = commands.stream()
+                .map(TransferCommand::fromAccountId)
+                .collect(Collectors.toSet());
+        return accountRepository.findOwnersByIdIn(sourceIds).stream()
+                .collect(Collectors.toMap(AccountOwner::id, AccountOwner::userId));
+    }
+
+    private TransferOutcome applyOne(TransferCommand command, Map<UUID, Account> accounts,
+                                     Map<SourceAccess, Boolean> verifiedSources) {
+        UUID fromAccountId = command.fromAccountId();
+        UUID toAccountId = command.toAccountId();
+        BigDecimal amount = command.amount();
+
+        Account fromAccount = accounts.get(fromAccountId);
+        boolean ownsSource = verifiedSources.computeIfAbsent(
+                new SourceAccess(command.userId(), fromAccountId),
+                access -> fromAccount != null && fromAccount.getUserId().equals(access.userId()));
+
+        if (!ownsSource) {
+            return TransferOutcome.failed(command, null,
+                    new AccountNotFoundException("Source account not found or access denied"));
+        }
+
+        Account toAccount = accounts.get(toAccountId);
+        if (toAccount == null) {
+            return TransferOutcome.failed(command, null,
+                    new AccountNotFoundException("Target account not found: " + toAccountId));
+        }
+
+        try {
+            if (fromAccountId.equals(toAccountId)) {
+                throw new IllegalArgumentException("Cannot transfer to the same account");
+            }
+
+            // Check if both accounts have the same currency type
+            if (!fromAccount.getClass().equals(toAccount.getClass())) {
+                throw new CurrencyMismatchException("Cannot transfer between different currency types. Source: " +
+                    fromAccount.getClass().getSimpleName() + ", Target: " + toAccount.getClass().getSimpleName());
+            }
+
+            // withdraw validates before mutating, so a rejected transfer leaves both balances as they were
+            hotAccountBalances.withdraw(fromAccount, amount);
+            hotAccountBalances.deposit(toAccount, amount);
+
+            return TransferOutcome.succeeded(command, new Transaction(fromAccountId, toAccountId, amount));
+
+        } catch (RuntimeException e) {
+            return TransferOutcome.failed(command,
+                    Transaction.createFailedTransaction(fromAccountId, toAccountId, amount), e);
+        }
+    }
+
+    private record SourceAccess(UUID userId, UUID accountId) {}
+}
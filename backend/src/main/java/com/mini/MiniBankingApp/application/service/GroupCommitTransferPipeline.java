@@ -0,0 +1,195 @@
+package com.mini.MiniBankingApp.application.service;
+
+import com.mini.MiniBankingApp.domain.transaction.Transaction;
+import com.mini.MiniBankingApp.exception.ServiceOverloadedException;
+import com.mini.MiniBankingApp.exception.TransferConflictException;
+import com.mini.MiniBankingApp.exception.TransferOutcomeUnknownException;
+import com.mini.MiniBankingApp.infrastructure.config.TransferProperties;
+import com.mini.MiniBankingApp.infrastructure.metrics.TransferMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for single transfers. Concurrent callers queue their transfer and a worker applies
+ * everything that arrives within a short window in one database transaction, so many transfers share
+ * one commit instead of paying for one each. Transfers are validated one by one, a rejected transfer
+ * only fails its own caller; an error of the whole transaction fails every transfer of the group.
+ */
+@Component
+@Slf4j
+public class GroupCommitTransferPipeline implements SmartLifecycle {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final BatchTransferProcessor batchTransferProcessor;
+    private final TransactionTemplate transactionTemplate;
+    private final TransferMetrics transferMetrics;
+    private final TransferProperties.GroupCommit properties;
+    private final BlockingQueue<PendingTransfer> queue;
+    private final List<Thread> workers = new ArrayList<>();
+
+    private volatile boolean running;
+
+    public GroupCommitTransferPipeline(BatchTransferProcessor batchTransferProcessor,
+                                       TransactionTemplate transactionTemplate,
+                                       TransferMetrics transferMetrics,
+                                       TransferProperties transferProperties) {
+        this.batchTransferProcessor = batchTransferProcessor;
+        this.transactionTemplate = transactionTemplate;
+        this.transferMetrics = transferMetrics;
+        this.properties = transferProperties.getGroupCommit();
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Queues the transfer for the next group commit and waits until that group committed
+     * @return the saved transaction
+     */
+    public Transaction transfer(TransferCommand command) {
+        PendingTransfer pending = new PendingTransfer(command, System.nanoTime(), new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            throw new ServiceOverloadedException("Transfer group commit queue is full", properties.getRetryAfter());
+        }
+
+        try {
+            return pending.result().get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Group commit failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransferOutcomeUnknownException("Interrupted while waiting for the group commit", e);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < Math.max(1, properties.getWorkers()); i++) {
+            workers.add(Thread.ofPlatform().name("transfer-group-commit-" + i).start(this::work));
+        }
+    }
+
+    /**
+     * Lets the workers commit what is already queued before they exit
+     */
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void work() {
+        List<PendingTransfer> batch = new ArrayList<>(properties.getMaxBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingTransfer first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(pending -> pending.result().completeExceptionally(
+                        new TransferConflictException("Group commit interrupted", e)));
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Adds queued transfers until the batch is full or the window after the first transfer closed
+     */
+    private void collect(List<PendingTransfer> batch) throws InterruptedException {
+        int maxBatchSize = properties.getMaxBatchSize();
+        long deadline = batch.get(0).submittedAt() + properties.getMaxWait().toNanos();
+
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+            PendingTransfer next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<PendingTransfer> batch) {
+        long startedAt = System.nanoTime();
+        for (PendingTransfer pending : batch) {
+            transferMetrics.recordGroupCommitQueueWait(startedAt - pending.submittedAt());
+        }
+
+        List<TransferCommand> commands = batch.stream()
+                .map(PendingTransfer::command)
+                .toList();
+
+        List<TransferOutcome> outcomes;
+        try {
+            outcomes = transactionTemplate.execute(status -> {
+                List<TransferOutcome> applied = batchTransferProcessor.apply(commands);
+                // Rejected transfers are recorded by their caller, same as on the single transfer path
+                batchTransferProcessor.persist(applied.stream()
+                        .filter(TransferOutcome::isSuccessful)
+                        .toList());
+                return applied;
+            });
+        } catch (RuntimeException e) {
+            log.debug("Group commit of {} transfers failed: {}", batch.size(), e.getMessage());
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+            return;
+        }
+
+        transferMetrics.recordGroupCommit(batch.size(), System.nanoTime() - startedAt);
+
+        for (int i = 0; i < batch.size(); i++) {
+            TransferOutcome outcome = outcomes.get(i);
+            if (outcome.isSuccessful()) {
+                batch.get(i).result().complete(outcome.transaction());
+            } else {
+                batch.get(i).result().completeExceptionally(outcome.error());
+            }
+        }
+    }
+
+    private record PendingTransfer(TransferCommand command, long submittedAt, CompletableFuture<Transaction> result) {}
+}
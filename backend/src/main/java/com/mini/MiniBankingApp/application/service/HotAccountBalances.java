@@ -0,0 +1,88 @@
+package com.mini.MiniBankingApp.application.service;
+
+import com.mini.MiniBankingApp.domain.account.Account;
+import com.mini.MiniBankingApp.infrastructure.config.HotAccountProperties;
+import com.mini.MiniBankingApp.infrastructure.repository.AccountBalanceShardRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Balance moves for hot accounts. Credits to a hot account go to a random shard row instead of the
+ * accounts row, so the account is neither locked nor version-bumped by incoming transfers. Debits still
+ * go to the accounts row and fold the shards into it first when the row alone does not cover them.
+ * Every method is a plain pass-through for accounts that are not hot.
+ */
+@Component
+@RequiredArgsConstructor
+public class HotAccountBalances {
+
+    private final HotAccountProperties properties;
+    private final AccountBalanceShardRepository shardRepository;
+
+    public boolean isHot(UUID accountId) {
+        return properties.isEnabled() && properties.getAccountIds().contains(accountId);
+    }
+
+    /**
+     * Credits the account, through a shard when it is hot. Must run in the transfer's transaction.
+     */
+    public void deposit(Account account, BigDecimal amount) {
+        if (!isHot(account.getId())) {
+            account.deposit(amount);
+            return;
+        }
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Deposit amount must be positive");
+        }
+        shardRepository.credit(account.getId(), randomShard(), amount);
+    }
+
+    /**
+     * Debits the account, sweeping its shards into it first when its own balance falls short.
+     * Must run in the transfer's transaction, so a rolled back debit also restores the shards.
+     */
+    public void withdraw(Account account, BigDecimal amount) {
+        if (amount != null && account.getBalance().compareTo(amount) < 0 && isHot(account.getId())) {
+            BigDecimal swept = shardRepository.sweep(account.getId());
+            if (swept.signum() > 0) {
+                account.deposit(swept);
+            }
+        }
+        account.withdraw(amount);
+    }
+
+    /**
+     * Guarded single-statement credit for the conditional update path
+     * @return false when the account is missing or its currency differs from the source account
+     */
+    public boolean creditIfSameCurrency(UUID accountId, UUID sourceAccountId, BigDecimal amount) {
+        return shardRepository.creditIfSameCurrency(accountId, sourceAccountId, randomShard(), amount) > 0;
+    }
+
+    /**
+     * Folds the shards of a hot account into its accounts row
+     * @return false when there was nothing to fold
+     */
+    public boolean sweepIntoAccount(UUID accountId, LocalDateTime now) {
+        return isHot(accountId) && shardRepository.sweepIntoAccount(accountId, now) > 0;
+    }
+
+    /**
+     * @return the accounts row balance plus whatever its shards hold
+     */
+    public BigDecimal totalBalance(Account account) {
+        if (!isHot(account.getId())) {
+            return account.getBalance();
+        }
+        return account.getBalance().add(shardRepository.sumBalance(account.getId()));
+    }
+
+    private int randomShard() {
+        return ThreadLocalRandom.current().nextInt(Math.max(1, properties.getShards()));
+    }
+}
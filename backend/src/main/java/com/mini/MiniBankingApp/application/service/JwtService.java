@@ -4,31 +4,76 @@ import com.mini.MiniBankingApp.domain.user.RefreshToken;
 import com.mini.MiniBankingApp.domain.user.User;
 import com.mini.MiniBankingApp.infrastructure.config.JwtProperties;
 import com.mini.MiniBankingApp.infrastructure.repository.RefreshTokenRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
 
 @Service
-@RequiredArgsConstructor
 public class JwtService {
     
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String AUTHORITIES_CLAIM = "authorities";
+    
+    private static final int REFRESH_TOKEN_BYTES = 32;
+    
     private final RefreshTokenRepository refreshTokenRepository;
     private final JwtProperties jwtProperties;
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
+    private final Cache<String, Claims> verifiedTokens;
+    private final SecureRandom secureRandom = new SecureRandom();
     
-    public String generateToken(String username) {
+    public JwtService(RefreshTokenRepository refreshTokenRepository, JwtProperties jwtProperties) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtProperties = jwtProperties;
+        // Key and parser are immutable and thread-safe, so they are built once instead of per call
+        this.signingKey = Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.verifiedTokens = jwtProperties.getVerificationCache().isEnabled()
+                ? Caffeine.newBuilder()
+                        .maximumSize(jwtProperties.getVerificationCache().getMaximumSize())
+                        .expireAfter(new UntilTokenExpires())
+                        .build()
+                : null;
+    }
+    
+    /**
+     * Issues an access token carrying everything needed to authenticate a request without a user lookup
+     */
+    public String generateToken(User user) {
+        return generateToken(user.getId(), user.getUsername());
+    }
+    
+    public String generateToken(UUID userId, String username) {
         Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, userId.toString());
+        // Users have no roles yet, the claim is already part of the token format
+        claims.put(AUTHORITIES_CLAIM, List.of());
         return createToken(claims, username);
     }
     
@@ -38,80 +83,104 @@ public class JwtService {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtProperties.getExpiration().toMillis()))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
     
-    public Boolean validateToken(String token, String username) {
-        final String tokenUsername = getUsernameFromToken(token);
-        return (tokenUsername.equals(username) && !isTokenExpired(token));
-    }
-    
-    public String getUsernameFromToken(String token) {
-        return getClaimFromToken(token, Claims::getSubject);
-    }
-    
-    public Date getExpirationDateFromToken(String token) {
-        return getClaimFromToken(token, Claims::getExpiration);
-    }
-    
-    public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = getAllClaimsFromToken(token);
-        return claimsResolver.apply(claims);
-    }
-    
-    private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-    
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
-    }
-    
-    private Key getSigningKey() {
-        byte[] keyBytes = jwtProperties.getSecret().getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * Verifies signature and expiration of the token in a single parse
+     * @return the verified claims
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public Claims verifyToken(String token) {
+        if (verifiedTokens == null) {
+            return jwtParser.parseClaimsJws(token).getBody();
+        }
+        
+        Claims cached = verifiedTokens.getIfPresent(token);
+        if (cached != null) {
+            return cached;
+        }
+        
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        verifiedTokens.put(token, claims);
+        return claims;
     }
     
+    /**
+     * Revokes the active refresh tokens of the user and issues a new one, in one statement.
+     * Concurrent logins of the user wait for each other on the user row, so one token stays active.
+     * @return the token for the client, only its hash is stored
+     */
     @Transactional
-    public RefreshToken generateRefreshToken(User user) {
-        // Revoke existing refresh tokens for this user
-        refreshTokenRepository.revokeAllByUser(user);
+    public String generateRefreshToken(UUID userId) {
+        byte[] randomBytes = new byte[REFRESH_TOKEN_BYTES];
+        secureRandom.nextBytes(randomBytes);
+        String tokenValue = Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(jwtProperties.getRefresh().getExpiration());
         
-        // Generate new refresh token
-        String tokenValue = UUID.randomUUID().toString();
-        LocalDateTime expiresAt = LocalDateTime.now().plus(jwtProperties.getRefresh().getExpiration());
-        
-        RefreshToken refreshToken = new RefreshToken(tokenValue, user, expiresAt);
-        return refreshTokenRepository.save(refreshToken);
+        refreshTokenRepository.lockUser(userId);
+        refreshTokenRepository.replaceActiveToken(userId, hashRefreshToken(tokenValue), expiresAt, now);
+        return tokenValue;
     }
     
-    @Transactional
-    public String refreshAccessToken(String refreshTokenValue) {
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(refreshTokenValue)
+    /**
+     * Loads a refresh token together with its user and checks it can still be used
+     */
+    @Transactional(readOnly = true)
+    public RefreshToken getValidRefreshToken(String refreshTokenValue) {
+        RefreshToken refreshToken = refreshTokenRepository.findWithUserByTokenHash(hashRefreshToken(refreshTokenValue))
                 .orElseThrow(() -> new RuntimeException("Invalid refresh token"));
         
         if (!refreshToken.isValid()) {
             throw new RuntimeException("Refresh token is expired or revoked");
         }
         
-        // Generate new access token
-        return generateToken(refreshToken.getUser().getUsername());
+        return refreshToken;
     }
     
     @Transactional
     public void revokeRefreshToken(String refreshTokenValue) {
-        refreshTokenRepository.findByToken(refreshTokenValue)
+        refreshTokenRepository.findByTokenHash(hashRefreshToken(refreshTokenValue))
                 .ifPresent(RefreshToken::revoke);
     }
     
-    @Transactional
-    public void revokeAllUserTokens(User user) {
-        refreshTokenRepository.revokeAllByUser(user);
+    /**
+     * Refresh tokens are random 256-bit values, so an unsalted SHA-256 is enough to make the stored hashes useless
+     */
+    private String hashRefreshToken(String tokenValue) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(tokenValue.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    /**
+     * Evicts a cached token the moment it expires, so a cache hit never outlives the token
+     */
+    private static class UntilTokenExpires implements Expiry<String, Claims> {
+        
+        @Override
+        public long expireAfterCreate(String token, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return 0;
+            }
+            long remainingMillis = expiration.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+        
+        @Override
+        public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, claims, currentTime);
+        }
+        
+        @Override
+        public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
\ No newline at end of file
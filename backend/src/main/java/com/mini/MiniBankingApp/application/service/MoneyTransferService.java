@@ -1,48 +1,83 @@
 package com.mini.MiniBankingApp.application.service;
 
+import com.mini.MiniBankingApp.application.dto.BatchTransferItemResult;
+import com.mini.MiniBankingApp.application.dto.BatchTransferMode;
+import com.mini.MiniBankingApp.application.dto.BatchTransferResponse;
+import com.mini.MiniBankingApp.application.dto.MoneyTransferRequest;
 import com.mini.MiniBankingApp.application.dto.MoneyTransferResponse;
+import com.mini.MiniBankingApp.application.dto.TransactionHistoryCursorResponse;
 import com.mini.MiniBankingApp.application.dto.TransactionHistoryResponse;
 import com.mini.MiniBankingApp.application.dto.TransactionHistoryPageResponse;
-import com.mini.MiniBankingApp.application.mapper.TransactionHistoryMapper;
 import com.mini.MiniBankingApp.domain.account.Account;
-import com.mini.MiniBankingApp.domain.user.User;
+import com.mini.MiniBankingApp.domain.common.UuidOrder;
 import com.mini.MiniBankingApp.exception.AccountNotFoundException;
 import com.mini.MiniBankingApp.domain.transaction.Transaction;
 import com.mini.MiniBankingApp.domain.transaction.TransactionStatus;
-import com.mini.MiniBankingApp.exception.UserNotFoundException;
 import com.mini.MiniBankingApp.exception.CurrencyMismatchException;
+import com.mini.MiniBankingApp.exception.InsufficientFundsException;
+import com.mini.MiniBankingApp.exception.TransactionNotFoundException;
+import com.mini.MiniBankingApp.exception.TransferConflictException;
+import com.mini.MiniBankingApp.infrastructure.config.TransferProperties;
+import com.mini.MiniBankingApp.infrastructure.config.TransferProperties.LockingStrategy;
+import com.mini.MiniBankingApp.infrastructure.ledger.LedgerEngine;
+import com.mini.MiniBankingApp.infrastructure.metrics.TransferMetrics;
 import com.mini.MiniBankingApp.infrastructure.projection.AccountBalanceProjection;
 import com.mini.MiniBankingApp.infrastructure.repository.AccountRepository;
+import com.mini.MiniBankingApp.infrastructure.repository.TransactionHistoryJdbcRepository;
 import com.mini.MiniBankingApp.infrastructure.repository.TransactionRepository;
-import com.mini.MiniBankingApp.infrastructure.repository.UserRepository;
+import com.mini.MiniBankingApp.infrastructure.security.AccountOwnershipResolver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class MoneyTransferService {
     
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
-    private final UserRepository userRepository;
-    private final TransactionHistoryMapper transactionHistoryMapper;
+    private final TransactionHistoryJdbcRepository transactionHistoryJdbcRepository;
     private final TransactionLogService transactionLogService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransferProperties transferProperties;
+    private final TransferMetrics transferMetrics;
+    private final BatchTransferProcessor batchTransferProcessor;
+    private final AccountOwnershipResolver accountOwnershipResolver;
+    private final ObjectProvider<LedgerEngine> ledgerEngine;
+    private final GroupCommitTransferPipeline groupCommitPipeline;
+    private final HotAccountBalances hotAccountBalances;
     
-    @Transactional
-    public Transaction transfer(String username, UUID fromAccountId, UUID toAccountId, BigDecimal amount) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
-        
+    /**
+     * Transfers money between two accounts using the configured locking strategy, or through
+     * the ledger engine or the group commit pipeline when one of them is enabled.
+     * Concurrency conflicts (optimistic version clashes, lock timeouts, deadlock victims)
+     * are retried with jittered exponential backoff before giving up.
+     */
+    public Transaction transfer(UUID userId, UUID fromAccountId, UUID toAccountId, BigDecimal amount) {
         if (fromAccountId.equals(toAccountId)) {
             throw new IllegalArgumentException("Cannot transfer to the same account");
         }
@@ -51,44 +86,422 @@ public class MoneyTransferService {
             throw new IllegalArgumentException("Transfer amount must be positive");
         }
         
-        // Verify user owns the source account
-        Account fromAccount = accountRepository.findByIdAndUserId(fromAccountId, user.getId())
-            .orElseThrow(() -> new AccountNotFoundException("Source account not found or access denied"));
+        LedgerEngine ledger = ledgerEngine.getIfAvailable();
+        if (ledger != null) {
+            return transferThroughLedger(ledger, userId, fromAccountId, toAccountId, amount);
+        }
+        
+        LockingStrategy strategy = transferProperties.getLocking();
+        
+        try {
+            return runWithRetry(strategy, fromAccountId, toAccountId, () -> {
+                if (groupCommitPipeline.isEnabled()) {
+                    Transaction transaction = groupCommitPipeline.transfer(
+                            new TransferCommand(userId, fromAccountId, toAccountId, amount));
+                    
+                    log.info("Money transfer completed successfully. Transaction ID: {}, From: {}, To: {}, Amount: {}", 
+                            transaction.getId(), fromAccountId, toAccountId, amount);
+                    
+                    return transaction;
+                }
+                return transactionTemplate.execute(status ->
+                        executeTransfer(strategy, userId, fromAccountId, toAccountId, amount));
+            });
+            
+        } catch (AccountNotFoundException e) {
+            throw e;
             
-        Account toAccount = accountRepository.findById(toAccountId)
-            .orElseThrow(() -> new AccountNotFoundException("Target account not found: " + toAccountId));
+        } catch (RuntimeException e) {
+            logFailedTransfer(fromAccountId, toAccountId, amount, e);
+            throw e;
+        }
+    }
+    
+    /**
+     * Records a validated transfer as PENDING without touching the accounts.
+     * It is executed later by {@link #completePendingTransfer}.
+     */
+    @Transactional
+    public Transaction createPendingTransfer(UUID fromAccountId, UUID toAccountId, BigDecimal amount) {
+        return transactionRepository.save(Transaction.createPendingTransaction(fromAccountId, toAccountId, amount));
+    }
+    
+    /**
+     * Executes a pending transfer with the configured locking strategy and retries, moving its row to SUCCESS
+     * in the same database transaction as the balances, or to FAILED when the transfer is rejected.
+     * The row is claimed before the balances move, so a transfer that is no longer pending is skipped.
+     * @return the final status, or PENDING when another executor already finished it
+     */
+    public TransactionStatus completePendingTransfer(UUID userId, Transaction pending) {
+        UUID fromAccountId = pending.getFromAccountId();
+        UUID toAccountId = pending.getToAccountId();
+        BigDecimal amount = pending.getAmount();
+        LockingStrategy strategy = transferProperties.getLocking();
         
         try {
-            // Check if both accounts have the same currency type
-            if (!fromAccount.getClass().equals(toAccount.getClass())) {
-                throw new CurrencyMismatchException("Cannot transfer between different currency types. Source: " + 
-                    fromAccount.getClass().getSimpleName() + ", Target: " + toAccount.getClass().getSimpleName());
-            }
+            boolean executed = runWithRetry(strategy, fromAccountId, toAccountId, () -> transactionTemplate.execute(status -> {
+                if (transactionRepository.completePending(pending.getId(), TransactionStatus.SUCCESS.name(), LocalDateTime.now()) == 0) {
+                    return false;
+                }
+                moveBalances(strategy, userId, fromAccountId, toAccountId, amount);
+                return true;
+            }));
             
-            fromAccount.withdraw(amount);
-            toAccount.deposit(amount);
+            if (!executed) {
+                return TransactionStatus.PENDING;
+            }
+            log.info("Money transfer completed successfully. Transaction ID: {}, From: {}, To: {}, Amount: {}", 
+                    pending.getId(), fromAccountId, toAccountId, amount);
+            return TransactionStatus.SUCCESS;
             
-            accountRepository.save(fromAccount);
-            accountRepository.save(toAccount);
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status ->
+                    transactionRepository.completePending(pending.getId(), TransactionStatus.FAILED.name(), LocalDateTime.now()));
             
-            Transaction transaction = new Transaction(fromAccountId, toAccountId, amount);
-            Transaction savedTransaction = transactionRepository.save(transaction);
+            log.warn("Money transfer failed. Transaction ID: {}, From: {}, To: {}, Amount: {}, Error: {}",
+                    pending.getId(), fromAccountId, toAccountId, amount, e.getMessage());
+            return TransactionStatus.FAILED;
+        }
+    }
+    
+    /**
+     * Gets a transfer the user sent or received, e.g. to poll the status of an asynchronous transfer
+     * @param userId authenticated user ID
+     * @param transactionId transaction ID
+     * @return the transaction
+     */
+    @Transactional(readOnly = true)
+    public Transaction getTransfer(UUID userId, Long transactionId) {
+        return transactionRepository.findById(transactionId)
+            .filter(transaction -> accountOwnershipResolver.isOwner(userId, transaction.getFromAccountId())
+                    || accountOwnershipResolver.isOwner(userId, transaction.getToAccountId()))
+            .orElseThrow(() -> new TransactionNotFoundException("Transaction not found or access denied: " + transactionId));
+    }
+    
+    /**
+     * Runs the attempt, retrying concurrency conflicts (optimistic version clashes, lock timeouts,
+     * deadlock victims) with jittered exponential backoff until the retry budget is used up
+     */
+    private <T> T runWithRetry(LockingStrategy strategy, UUID fromAccountId, UUID toAccountId, Supplier<T> attempt) {
+        int maxAttempts = Math.max(1, transferProperties.getRetry().getMaxAttempts());
+        
+        for (int attemptNumber = 1; ; attemptNumber++) {
+            try {
+                return attempt.get();
+                
+            } catch (ConcurrencyFailureException e) {
+                if (attemptNumber >= maxAttempts) {
+                    transferMetrics.recordConflict(strategy);
+                    throw new TransferConflictException("Transfer could not be completed due to concurrent updates", e);
+                }
+                
+                transferMetrics.recordRetry(strategy);
+                log.debug("Transfer conflict on attempt {}/{}. From: {}, To: {}, Error: {}",
+                        attemptNumber, maxAttempts, fromAccountId, toAccountId, e.getMessage());
+                backOff(attemptNumber);
+            }
+        }
+    }
+    
+    private Transaction transferThroughLedger(LedgerEngine ledger, UUID userId, UUID fromAccountId,
+                                              UUID toAccountId, BigDecimal amount) {
+        try {
+            Transaction transaction = ledger.transfer(userId, fromAccountId, toAccountId, amount);
             
             log.info("Money transfer completed successfully. Transaction ID: {}, From: {}, To: {}, Amount: {}", 
-                    savedTransaction.getId(), fromAccountId, toAccountId, amount);
+                    transaction.getId(), fromAccountId, toAccountId, amount);
             
-            return savedTransaction;
+            return transaction;
             
-        } catch (Exception e) {
-            transactionLogService.logFailedTransaction(fromAccountId, toAccountId, amount, e.getMessage());
-
-            log.warn("Money transfer failed. From: {}, To: {}, Amount: {}, Error: {}",
-                    fromAccountId, toAccountId, amount, e.getMessage());
+        } catch (AccountNotFoundException e) {
+            throw e;
             
+        } catch (RuntimeException e) {
+            logFailedTransfer(fromAccountId, toAccountId, amount, e);
             throw e;
         }
     }
     
+    /**
+     * Executes many transfers from the user's accounts in a single database transaction.
+     * All involved accounts are locked once, ownership is checked once per source account and
+     * the resulting transaction rows are written with JDBC batch inserts.
+     * @param userId authenticated user ID
+     * @param transfers transfers to execute, in order
+     * @param mode whether one failing transfer rolls back the whole batch
+     * @return per-transfer results
+     */
+    public BatchTransferResponse transferBatch(UUID userId, List<MoneyTransferRequest> transfers, BatchTransferMode mode) {
+        LedgerEngine ledger = ledgerEngine.getIfAvailable();
+        if (ledger != null) {
+            return transferBatchThroughLedger(ledger, userId, transfers, mode);
+        }
+        
+        List<TransferCommand> commands = transfers.stream()
+                .map(request -> new TransferCommand(
+                        userId, request.getFromAccountId(), request.getToAccountId(), request.getAmount()))
+                .toList();
+        
+        List<TransferOutcome> outcomes = transactionTemplate.execute(status -> {
+            List<TransferOutcome> applied = batchTransferProcessor.apply(commands);
+            
+            if (mode == BatchTransferMode.ALL_OR_NOTHING && applied.stream().anyMatch(TransferOutcome::isFailed)) {
+                status.setRollbackOnly();
+            } else {
+                batchTransferProcessor.persist(applied);
+            }
+            return applied;
+        });
+        
+        boolean rolledBack = mode == BatchTransferMode.ALL_OR_NOTHING
+                && outcomes.stream().anyMatch(TransferOutcome::isFailed);
+        
+        if (rolledBack) {
+            outcomes.stream()
+                    .filter(outcome -> outcome.isFailed() && outcome.transaction() != null)
+                    .forEach(outcome -> transactionLogService.logFailedTransaction(
+                            outcome.command().fromAccountId(),
+                            outcome.command().toAccountId(),
+                            outcome.command().amount(),
+                            outcome.error().getMessage()));
+        }
+        
+        List<BatchTransferItemResult> results = new ArrayList<>(outcomes.size());
+        for (int i = 0; i < outcomes.size(); i++) {
+            results.add(toBatchItemResult(i, outcomes.get(i), rolledBack));
+        }
+        
+        int successCount = (int) results.stream()
+                .filter(result -> result.getStatus() == TransactionStatus.SUCCESS)
+                .count();
+        
+        log.info("Batch transfer finished. Mode: {}, Total: {}, Succeeded: {}, Failed: {}",
+                mode, results.size(), successCount, results.size() - successCount);
+        
+        return new BatchTransferResponse(mode, results.size(), successCount, results.size() - successCount, results);
+    }
+    
+    /**
+     * The ledger acknowledges every transfer on its own, so only best-effort batches can run through it
+     */
+    private BatchTransferResponse transferBatchThroughLedger(LedgerEngine ledger, UUID userId,
+                                                             List<MoneyTransferRequest> transfers, BatchTransferMode mode) {
+        if (mode == BatchTransferMode.ALL_OR_NOTHING) {
+            throw new IllegalStateException("ALL_OR_NOTHING batches are not supported while the ledger engine is enabled");
+        }
+        
+        List<BatchTransferItemResult> results = new ArrayList<>(transfers.size());
+        for (int i = 0; i < transfers.size(); i++) {
+            MoneyTransferRequest request = transfers.get(i);
+            UUID fromAccountId = request.getFromAccountId();
+            UUID toAccountId = request.getToAccountId();
+            BigDecimal amount = request.getAmount();
+            try {
+                if (fromAccountId.equals(toAccountId)) {
+                    throw new IllegalArgumentException("Cannot transfer to the same account");
+                }
+                Transaction transaction = transferThroughLedger(ledger, userId, fromAccountId, toAccountId, amount);
+                results.add(new BatchTransferItemResult(i, fromAccountId, toAccountId, amount,
+                        TransactionStatus.SUCCESS, transaction.getId(), "Transfer completed successfully"));
+            } catch (RuntimeException e) {
+                results.add(new BatchTransferItemResult(i, fromAccountId, toAccountId, amount,
+                        TransactionStatus.FAILED, null, e.getMessage()));
+            }
+        }
+        
+        int successCount = (int) results.stream()
+                .filter(result -> result.getStatus() == TransactionStatus.SUCCESS)
+                .count();
+        
+        log.info("Batch transfer finished. Mode: {}, Total: {}, Succeeded: {}, Failed: {}",
+                mode, results.size(), successCount, results.size() - successCount);
+        
+        return new BatchTransferResponse(mode, results.size(), successCount, results.size() - successCount, results);
+    }
+    
+    private BatchTransferItemResult toBatchItemResult(int index, TransferOutcome outcome, boolean rolledBack) {
+        TransferCommand command = outcome.command();
+        
+        if (outcome.isFailed()) {
+            return new BatchTransferItemResult(index, command.fromAccountId(), command.toAccountId(), command.amount(),
+                    TransactionStatus.FAILED, null, outcome.error().getMessage());
+        }
+        
+        if (rolledBack) {
+            return new BatchTransferItemResult(index, command.fromAccountId(), command.toAccountId(), command.amount(),
+                    TransactionStatus.FAILED, null, "Rolled back because another transfer in the batch failed");
+        }
+        
+        return new BatchTransferItemResult(index, command.fromAccountId(), command.toAccountId(), command.amount(),
+                TransactionStatus.SUCCESS, outcome.transaction().getId(), "Transfer completed successfully");
+    }
+    
+    private Transaction executeTransfer(LockingStrategy strategy, UUID userId, UUID fromAccountId,
+                                        UUID toAccountId, BigDecimal amount) {
+        moveBalances(strategy, userId, fromAccountId, toAccountId, amount);
+        
+        Transaction transaction = new Transaction(fromAccountId, toAccountId, amount);
+        Transaction savedTransaction = transactionRepository.save(transaction);
+        
+        log.info("Money transfer completed successfully. Transaction ID: {}, From: {}, To: {}, Amount: {}", 
+                savedTransaction.getId(), fromAccountId, toAccountId, amount);
+        
+        return savedTransaction;
+    }
+    
+    /**
+     * Validates the transfer and moves the balances. Must run inside a transaction.
+     */
+    private void moveBalances(LockingStrategy strategy, UUID userId, UUID fromAccountId,
+                              UUID toAccountId, BigDecimal amount) {
+        if (strategy == LockingStrategy.CONDITIONAL_UPDATE) {
+            moveBalancesConditionally(userId, fromAccountId, toAccountId, amount);
+            return;
+        }
+        
+        Account fromAccount;
+        Account toAccount;
+        
+        if (strategy == LockingStrategy.PESSIMISTIC) {
+            // Hot accounts are credited through their shards, so their row is not locked for incoming transfers
+            boolean hotTarget = hotAccountBalances.isHot(toAccountId);
+            Map<UUID, Account> lockedAccounts = lockAccounts(
+                    hotTarget ? List.of(fromAccountId) : List.of(fromAccountId, toAccountId));
+            
+            // Verify user owns the source account
+            fromAccount = Optional.ofNullable(lockedAccounts.get(fromAccountId))
+                .filter(account -> account.getUserId().equals(userId))
+                .orElseThrow(() -> new AccountNotFoundException("Source account not found or access denied"));
+            
+            toAccount = Optional.ofNullable(lockedAccounts.get(toAccountId))
+                .or(() -> hotTarget ? accountRepository.findById(toAccountId) : Optional.empty())
+                .orElseThrow(() -> new AccountNotFoundException("Target account not found: " + toAccountId));
+        } else {
+            // Verify user owns the source account
+            fromAccount = accountRepository.findByIdAndUserId(fromAccountId, userId)
+                .orElseThrow(() -> new AccountNotFoundException("Source account not found or access denied"));
+            
+            toAccount = accountRepository.findById(toAccountId)
+                .orElseThrow(() -> new AccountNotFoundException("Target account not found: " + toAccountId));
+        }
+        
+        // Check if both accounts have the same currency type
+        if (!fromAccount.getClass().equals(toAccount.getClass())) {
+            throw new CurrencyMismatchException("Cannot transfer between different currency types. Source: " + 
+                fromAccount.getClass().getSimpleName() + ", Target: " + toAccount.getClass().getSimpleName());
+        }
+        
+        hotAccountBalances.withdraw(fromAccount, amount);
+        hotAccountBalances.deposit(toAccount, amount);
+        
+        accountRepository.save(fromAccount);
+        accountRepository.save(toAccount);
+    }
+    
+    /**
+     * Moves the balances with two guarded UPDATE statements instead of loading the accounts.
+     * The statements always run in account ID order, the same unsigned order as the ORDER BY id of the
+     * locking paths, so opposing transfers queue on the same row first instead of deadlocking. Entities are only loaded when a guard rejects
+     * the update, to report the same error the entity path would have raised.
+     */
+    private void moveBalancesConditionally(UUID userId, UUID fromAccountId, UUID toAccountId, BigDecimal amount) {
+        LocalDateTime now = LocalDateTime.now();
+        
+        if (UuidOrder.compare(fromAccountId, toAccountId) < 0) {
+            if (!conditionalDebit(userId, fromAccountId, amount, now)
+                    || !conditionalCredit(toAccountId, fromAccountId, amount, now)) {
+                throw diagnoseRejectedTransfer(userId, fromAccountId, toAccountId, amount);
+            }
+        } else {
+            if (!conditionalCredit(toAccountId, fromAccountId, amount, now)
+                    || !conditionalDebit(userId, fromAccountId, amount, now)) {
+                throw diagnoseRejectedTransfer(userId, fromAccountId, toAccountId, amount);
+            }
+        }
+    }
+    
+    /**
+     * Guarded debit of the accounts row. A hot account that falls short gets its shards folded in and one more try.
+     */
+    private boolean conditionalDebit(UUID userId, UUID fromAccountId, BigDecimal amount, LocalDateTime now) {
+        if (accountRepository.debitIfSufficient(fromAccountId, userId, amount, now) > 0) {
+            return true;
+        }
+        return hotAccountBalances.sweepIntoAccount(fromAccountId, now)
+                && accountRepository.debitIfSufficient(fromAccountId, userId, amount, now) > 0;
+    }
+    
+    private boolean conditionalCredit(UUID toAccountId, UUID fromAccountId, BigDecimal amount, LocalDateTime now) {
+        if (hotAccountBalances.isHot(toAccountId)) {
+            return hotAccountBalances.creditIfSameCurrency(toAccountId, fromAccountId, amount);
+        }
+        return accountRepository.creditIfSameCurrency(toAccountId, fromAccountId, amount, now) > 0;
+    }
+    
+    /**
+     * Works out why a guarded UPDATE matched no row, checking in the same order as the entity path
+     */
+    private RuntimeException diagnoseRejectedTransfer(UUID userId, UUID fromAccountId, UUID toAccountId, BigDecimal amount) {
+        Optional<Account> fromAccount = accountRepository.findByIdAndUserId(fromAccountId, userId);
+        if (fromAccount.isEmpty()) {
+            return new AccountNotFoundException("Source account not found or access denied");
+        }
+        
+        Optional<Account> toAccount = accountRepository.findById(toAccountId);
+        if (toAccount.isEmpty()) {
+            return new AccountNotFoundException("Target account not found: " + toAccountId);
+        }
+        
+        if (!fromAccount.get().getClass().equals(toAccount.get().getClass())) {
+            return new CurrencyMismatchException("Cannot transfer between different currency types. Source: " + 
+                fromAccount.get().getClass().getSimpleName() + ", Target: " + toAccount.get().getClass().getSimpleName());
+        }
+        
+        BigDecimal balance = hotAccountBalances.totalBalance(fromAccount.get());
+        if (balance.compareTo(amount) < 0) {
+            return new InsufficientFundsException("Insufficient balance. Current balance: " + balance);
+        }
+        
+        // The balance was topped up between the guarded UPDATE and this read, let the retry loop try again
+        return new ConcurrencyFailureException("Account balance changed concurrently");
+    }
+    
+    /**
+     * Locks the accounts in a single ordered SELECT ... FOR UPDATE and records the lock wait time
+     */
+    private Map<UUID, Account> lockAccounts(List<UUID> accountIds) {
+        long startedAt = System.nanoTime();
+        List<Account> accounts = accountRepository.findAllByIdForUpdate(accountIds);
+        transferMetrics.recordLockWait(System.nanoTime() - startedAt);
+        
+        return accounts.stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity()));
+    }
+    
+    /**
+     * Sleeps for a random duration up to an exponentially growing ceiling (full jitter)
+     */
+    private void backOff(int attempt) {
+        TransferProperties.Retry retry = transferProperties.getRetry();
+        long ceiling = Math.min(
+                retry.getMaxBackoff().toMillis(),
+                retry.getInitialBackoff().toMillis() << Math.min(attempt - 1, 16));
+        
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransferConflictException("Transfer retry interrupted", e);
+        }
+    }
+    
+    private void logFailedTransfer(UUID fromAccountId, UUID toAccountId, BigDecimal amount, Exception e) {
+        transactionLogService.logFailedTransaction(fromAccountId, toAccountId, amount, e.getMessage());
+        
+        log.warn("Money transfer failed. From: {}, To: {}, Amount: {}, Error: {}",
+                fromAccountId, toAccountId, amount, e.getMessage());
+    }
+    
     /**
      * Gets account balance using projection for performance optimization
      * @param accountId account ID
@@ -103,52 +516,43 @@ public class MoneyTransferService {
     
     /**
      * Gets transaction history for a specific account
-     * @param username authenticated user
+     * @param userId authenticated user ID
      * @param accountId account ID
      * @return list of transactions
      */
     @Transactional(readOnly = true)
-    public List<TransactionHistoryResponse> getTransactionHistory(String username, UUID accountId) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
-        
-        // Verify account ownership
-        accountRepository.findByIdAndUserId(accountId, user.getId())
-                .orElseThrow(() -> new AccountNotFoundException("Account not found or access denied"));
+    public List<TransactionHistoryResponse> getTransactionHistory(UUID userId, UUID accountId) {
+        // Verify account ownership, usually already resolved by the access check of this request
+        if (!accountOwnershipResolver.isOwner(userId, accountId)) {
+            throw new AccountNotFoundException("Account not found or access denied");
+        }
         
-        List<Transaction> transactions = transactionRepository.findByAccountIdOrderByCreatedAtDesc(accountId);
-
-        return transactions.stream()
-                .map(transaction -> transactionHistoryMapper.toHistoryResponse(transaction, accountId))
-                .toList();
+        return transactionHistoryJdbcRepository.findHistory(accountId);
     }
     
     /**
      * Gets paginated transaction history for a specific account
-     * @param username authenticated user
+     * @param userId authenticated user ID
      * @param accountId account ID
      * @param page page number (0-based)
      * @param size page size
      * @return paginated transaction history
      */
     @Transactional(readOnly = true)
-    public TransactionHistoryPageResponse getTransactionHistoryPaginated(String username, UUID accountId, int page, int size) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
-        
-        // Verify account ownership
-        accountRepository.findByIdAndUserId(accountId, user.getId())
-                .orElseThrow(() -> new AccountNotFoundException("Account not found or access denied"));
+    public TransactionHistoryPageResponse getTransactionHistoryPaginated(UUID userId, UUID accountId, int page, int size) {
+        // Verify account ownership, usually already resolved by the access check of this request
+        if (!accountOwnershipResolver.isOwner(userId, accountId)) {
+            throw new AccountNotFoundException("Account not found or access denied");
+        }
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<Transaction> transactionPage = transactionRepository.findByAccountIdOrderByCreatedAtDesc(accountId, pageable);
-        
-        List<TransactionHistoryResponse> transactions = transactionPage.getContent().stream()
-                .map(transaction -> transactionHistoryMapper.toHistoryResponse(transaction, accountId))
-                .toList();
+        List<TransactionHistoryResponse> rows = transactionHistoryJdbcRepository.findHistoryPage(
+                accountId, pageable.getPageSize(), pageable.getOffset());
+        Page<TransactionHistoryResponse> transactionPage = PageableExecutionUtils.getPage(
+                rows, pageable, () -> transactionHistoryJdbcRepository.countHistory(accountId));
         
         return new TransactionHistoryPageResponse(
-                transactions,
+                transactionPage.getContent(),
                 transactionPage.getNumber(),
                 transactionPage.getTotalPages(),
                 transactionPage.getTotalElements(),
@@ -157,4 +561,54 @@ public class MoneyTransferService {
                 transactionPage.hasPrevious()
         );
     }
+    
+    /**
+     * Gets a keyset page of transaction history for a specific account, newest first
+     * @param userId authenticated user ID
+     * @param accountId account ID
+     * @param after opaque cursor from the previous page, null for the first page
+     * @param fromDate first day to include, null for no lower bound
+     * @param toDate last day to include, null for no upper bound
+     * @param size page size
+     * @return transactions and the cursor of the next page
+     */
+    @Transactional(readOnly = true)
+    public TransactionHistoryCursorResponse getTransactionHistoryByCursor(UUID userId, UUID accountId, String after,
+                                                                          LocalDate fromDate, LocalDate toDate, int size) {
+        if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        
+        // Verify account ownership, usually already resolved by the access check of this request
+        if (!accountOwnershipResolver.isOwner(userId, accountId)) {
+            throw new AccountNotFoundException("Account not found or access denied");
+        }
+        
+        // One extra row tells whether another page exists without counting the history
+        int limit = size + 1;
+        LocalDateTime from = fromDate != null ? fromDate.atStartOfDay() : null;
+        LocalDateTime to = toDate != null ? toDate.plusDays(1).atStartOfDay() : null;
+        List<TransactionHistoryResponse> rows;
+        if (after == null || after.isBlank()) {
+            rows = transactionHistoryJdbcRepository.findHistoryPageBefore(accountId, null, null, from, to, limit);
+        } else {
+            TransactionHistoryCursor cursor = TransactionHistoryCursor.decode(after);
+            rows = transactionHistoryJdbcRepository.findHistoryPageBefore(
+                    accountId, cursor.createdAt(), cursor.id(), from, to, limit);
+        }
+        
+        boolean hasNext = rows.size() > size;
+        List<TransactionHistoryResponse> transactions = hasNext ? rows.subList(0, size) : rows;
+        
+        String nextCursor = null;
+        if (hasNext) {
+            TransactionHistoryResponse last = transactions.get(transactions.size() - 1);
+            nextCursor = new TransactionHistoryCursor(last.getTransactionDate(), last.getId()).encode();
+        }
+        
+        return new TransactionHistoryCursorResponse(transactions, size, nextCursor, hasNext);
+    }
 }
\ No newline at end of file
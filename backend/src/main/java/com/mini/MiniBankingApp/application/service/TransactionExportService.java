@@ -0,0 +1,125 @@
+package com.mini.MiniBankingApp.application.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mini.MiniBankingApp.application.dto.TransactionExportFormat;
+import com.mini.MiniBankingApp.application.dto.TransactionHistoryResponse;
+import com.mini.MiniBankingApp.exception.AccountNotFoundException;
+import com.mini.MiniBankingApp.infrastructure.repository.TransactionHistoryJdbcRepository;
+import com.mini.MiniBankingApp.infrastructure.security.AccountOwnershipResolver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Exports an account's transaction history as CSV or NDJSON.
+ * Rows are written to the response as they are read from the database cursor,
+ * so memory use does not grow with the length of the history.
+ */
+@Service
+@Slf4j
+public class TransactionExportService {
+
+    private static final String CSV_HEADER =
+            "id,transactionDate,transactionType,amount,status,fromAccountId,toAccountId,otherAccountId";
+
+    private final AccountOwnershipResolver accountOwnershipResolver;
+    private final TransactionHistoryJdbcRepository transactionHistoryJdbcRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    public TransactionExportService(AccountOwnershipResolver accountOwnershipResolver,
+                                    TransactionHistoryJdbcRepository transactionHistoryJdbcRepository,
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager) {
+        this.accountOwnershipResolver = accountOwnershipResolver;
+        this.transactionHistoryJdbcRepository = transactionHistoryJdbcRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Verifies account ownership and returns a body that streams the history, newest first
+     * @param userId authenticated user ID
+     * @param accountId account ID
+     * @param fromDate first day to include, null for no lower bound
+     * @param toDate last day to include, null for no upper bound
+     * @param format output format
+     * @return response body writing the export
+     */
+    public StreamingResponseBody exportTransactionHistory(UUID userId, UUID accountId,
+                                                          LocalDate fromDate, LocalDate toDate,
+                                                          TransactionExportFormat format) {
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+
+        // Verify account ownership before anything is written
+        if (!accountOwnershipResolver.isOwner(userId, accountId)) {
+            throw new AccountNotFoundException("Account not found or access denied");
+        }
+
+        LocalDateTime from = fromDate != null ? fromDate.atStartOfDay() : null;
+        LocalDateTime to = toDate != null ? toDate.plusDays(1).atStartOfDay() : null;
+
+        return outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            if (format == TransactionExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+
+            try {
+                readOnlyTransactionTemplate.executeWithoutResult(status ->
+                        transactionHistoryJdbcRepository.streamHistory(accountId, from, to,
+                                row -> writeRow(writer, row, format)));
+            } catch (UncheckedIOException e) {
+                // Client went away mid-export, JdbcTemplate has closed the cursor and the transaction is rolled back
+                log.debug("Transaction export for account {} aborted: {}", accountId, e.getMessage());
+                throw e.getCause();
+            }
+
+            writer.flush();
+        };
+    }
+
+    private void writeRow(Writer writer, TransactionHistoryResponse row, TransactionExportFormat format) {
+        try {
+            if (format == TransactionExportFormat.CSV) {
+                writer.write(toCsvLine(row));
+            } else {
+                writer.write(objectMapper.writeValueAsString(row));
+            }
+            writer.write('\n');
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize transaction " + row.getId(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Every column is a number, UUID, enum or timestamp, so no value needs quoting
+    private static String toCsvLine(TransactionHistoryResponse row) {
+        return row.getId() + "," +
+               row.getTransactionDate() + "," +
+               row.getTransactionType() + "," +
+               row.getAmount().toPlainString() + "," +
+               row.getStatus() + "," +
+               row.getFromAccountId() + "," +
+               row.getToAccountId() + "," +
+               row.getOtherAccountId();
+    }
+}
@@ -0,0 +1,32 @@
+package com.mini.MiniBankingApp.application.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in an account's transaction history, the (created_at, id) of the last row on a page.
+ * Clients only see it as an opaque URL-safe token.
+ */
+record TransactionHistoryCursor(LocalDateTime createdAt, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    String encode() {
+        String value = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static TransactionHistoryCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separatorIndex = value.indexOf(SEPARATOR);
+            return new TransactionHistoryCursor(
+                    LocalDateTime.parse(value.substring(0, separatorIndex)),
+                    Long.valueOf(value.substring(separatorIndex + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.mini.MiniBankingApp.application.service;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * A single transfer to execute on behalf of a user, as handed to batch processing
+ */
+public record TransferCommand(
+    UUID userId,
+    UUID fromAccountId,
+    UUID toAccountId,
+    BigDecimal amount
+) {}
@@ -0,0 +1,238 @@
+package com.mini.MiniBankingApp.application.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mini.MiniBankingApp.application.dto.MoneyTransferRequest;
+import com.mini.MiniBankingApp.application.dto.MoneyTransferResponse;
+import com.mini.MiniBankingApp.exception.AccountNotFoundException;
+import com.mini.MiniBankingApp.exception.CurrencyMismatchException;
+import com.mini.MiniBankingApp.exception.IdempotencyKeyConflictException;
+import com.mini.MiniBankingApp.exception.InsufficientFundsException;
+import com.mini.MiniBankingApp.exception.ServiceOverloadedException;
+import com.mini.MiniBankingApp.exception.TransferConflictException;
+import com.mini.MiniBankingApp.exception.TransferOutcomeUnknownException;
+import com.mini.MiniBankingApp.exception.UnauthorizedAccountAccessException;
+import com.mini.MiniBankingApp.infrastructure.config.IdempotencyProperties;
+import com.mini.MiniBankingApp.infrastructure.repository.TransferIdempotencyKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs a transfer at most once per Idempotency-Key and replays its response to retries.
+ * Completed keys are looked up in a local cache first and in the transfer_idempotency_keys table after that.
+ * A duplicate arriving while the first request runs, on this or another instance, is refused at once with
+ * 409 and a Retry-After instead of holding its thread. A transfer rejected before it changed anything releases
+ * its key so the client can retry it; one with an unknown outcome marks the key failed, and retries with it
+ * get that outcome again until the key expires.
+ */
+@Service
+@Slf4j
+public class TransferIdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int CLAIM_ATTEMPTS = 2;
+
+    private final TransferIdempotencyKeyRepository repository;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyProperties properties;
+    private final Cache<KeyId, CompletedKey> completedKeys;
+    private final Map<KeyId, String> inFlight = new ConcurrentHashMap<>();
+
+    public TransferIdempotencyService(TransferIdempotencyKeyRepository repository,
+                                      ObjectMapper objectMapper,
+                                      IdempotencyProperties properties) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.completedKeys = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .build();
+    }
+
+    /**
+     * Runs the transfer unless a request with the same key already did
+     * @param key Idempotency-Key header value
+     * @param transfer executes the transfer and maps its response
+     * @return the response of the first request with this key
+     */
+    public MoneyTransferResponse execute(UUID userId, String key, MoneyTransferRequest request,
+                                         Supplier<MoneyTransferResponse> transfer) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        KeyId keyId = new KeyId(userId, key);
+        String requestHash = hash(request);
+
+        CompletedKey completed = completedKeys.getIfPresent(keyId);
+        if (completed != null) {
+            return replay(completed, requestHash);
+        }
+
+        String firstHash = inFlight.putIfAbsent(keyId, requestHash);
+        if (firstHash != null) {
+            if (!firstHash.equals(requestHash)) {
+                throw new IdempotencyKeyConflictException("Idempotency key was used for a different request");
+            }
+            throw inProgress();
+        }
+
+        try {
+            return executeOnce(keyId, requestHash, transfer);
+        } finally {
+            inFlight.remove(keyId, requestHash);
+        }
+    }
+
+    /**
+     * Claims the key in the table and runs the transfer, or answers from the claim another request holds
+     */
+    private MoneyTransferResponse executeOnce(KeyId keyId, String requestHash, Supplier<MoneyTransferResponse> transfer) {
+        for (int attempt = 0; attempt < CLAIM_ATTEMPTS; attempt++) {
+            LocalDateTime now = LocalDateTime.now();
+            if (repository.tryClaim(keyId.userId(), keyId.key(), requestHash, now, now.plus(properties.getTimeToLive()))) {
+                return run(keyId, requestHash, transfer);
+            }
+
+            Optional<TransferIdempotencyKeyRepository.StoredKey> stored = repository.find(keyId.userId(), keyId.key(), now);
+            if (stored.isPresent()) {
+                if (!stored.get().requestHash().equals(requestHash)) {
+                    throw new IdempotencyKeyConflictException("Idempotency key was used for a different request");
+                }
+                if (stored.get().response() != null) {
+                    CompletedKey completed = new CompletedKey(requestHash, deserialize(stored.get().response()));
+                    completedKeys.put(keyId, completed);
+                    return completed.response();
+                }
+                if (stored.get().failed()) {
+                    CompletedKey failed = new CompletedKey(requestHash, null);
+                    completedKeys.put(keyId, failed);
+                    return replay(failed, requestHash);
+                }
+                // The first request is still running on another instance
+                throw inProgress();
+            }
+            // The first request released its claim between our claim and the lookup, claim again
+        }
+        throw inProgress();
+    }
+
+    private MoneyTransferResponse run(KeyId keyId, String requestHash, Supplier<MoneyTransferResponse> transfer) {
+        MoneyTransferResponse response;
+        try {
+            response = transfer.get();
+        } catch (RuntimeException e) {
+            if (isRejection(e)) {
+                repository.release(keyId.userId(), keyId.key());
+            } else {
+                // The transfer may still have been applied (acknowledgement timeout, failed commit), so a retry
+                // with this key must not run it again; the client checks its history and uses a new key
+                log.warn("Marking idempotency key {} of user {} failed after a transfer with an unknown outcome: {}",
+                        keyId.key(), keyId.userId(), e.getMessage());
+                markFailed(keyId, requestHash);
+            }
+            throw e;
+        }
+
+        try {
+            repository.complete(keyId.userId(), keyId.key(), serialize(response));
+        } catch (RuntimeException e) {
+            // The transfer is done, the claim stays in progress until it expires so a retry cannot run it again
+            log.error("Could not store the response of idempotency key {} of user {}: {}",
+                    keyId.key(), keyId.userId(), e.getMessage());
+        }
+        completedKeys.put(keyId, new CompletedKey(requestHash, response));
+        return response;
+    }
+
+    private void markFailed(KeyId keyId, String requestHash) {
+        completedKeys.put(keyId, new CompletedKey(requestHash, null));
+        try {
+            repository.fail(keyId.userId(), keyId.key());
+        } catch (RuntimeException e) {
+            // Other instances then see the claim in progress until it expires
+            log.error("Could not mark idempotency key {} of user {} failed: {}",
+                    keyId.key(), keyId.userId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Rejections that are certain to have left the accounts untouched: validation and business rule failures,
+     * requests shed before they ran, and transfers rolled back after running out of retries
+     */
+    private static boolean isRejection(RuntimeException e) {
+        return e instanceof IllegalArgumentException
+                || e instanceof InsufficientFundsException
+                || e instanceof CurrencyMismatchException
+                || e instanceof AccountNotFoundException
+                || e instanceof UnauthorizedAccountAccessException
+                || e instanceof ServiceOverloadedException
+                || e instanceof TransferConflictException;
+    }
+
+    private MoneyTransferResponse replay(CompletedKey completed, String requestHash) {
+        if (!completed.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyConflictException("Idempotency key was used for a different request");
+        }
+        if (completed.response() == null) {
+            throw new TransferOutcomeUnknownException("The first request with this idempotency key has an unknown outcome");
+        }
+        return completed.response();
+    }
+
+    private IdempotencyKeyConflictException inProgress() {
+        return new IdempotencyKeyConflictException("A request with this idempotency key is still in progress",
+                properties.getRetryAfter());
+    }
+
+    private String serialize(MoneyTransferResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize transfer response", e);
+        }
+    }
+
+    private MoneyTransferResponse deserialize(String response) {
+        try {
+            return objectMapper.readValue(response, MoneyTransferResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored transfer response", e);
+        }
+    }
+
+    /**
+     * Fingerprint of the request fields, so a key reused for another transfer is refused instead of replayed
+     */
+    private static String hash(MoneyTransferRequest request) {
+        String fingerprint = request.getFromAccountId() + "|" + request.getToAccountId() + "|" +
+                (request.getAmount() != null ? request.getAmount().stripTrailingZeros().toPlainString() : "");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(fingerprint.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record KeyId(UUID userId, String key) {}
+
+    /**
+     * @param response null when the transfer of the first request has an unknown outcome
+     */
+    private record CompletedKey(String requestHash, MoneyTransferResponse response) {}
+}
@@ -0,0 +1,31 @@
+package com.mini.MiniBankingApp.application.service;
+
+import com.mini.MiniBankingApp.domain.transaction.Transaction;
+
+/**
+ * Result of applying a {@link TransferCommand}.
+ * The transaction is the row to record for it: SUCCESS for applied transfers, FAILED for rejected ones,
+ * or null when nothing is recorded (e.g. unknown accounts, same as the single transfer path).
+ */
+public record TransferOutcome(
+    TransferCommand command,
+    Transaction transaction,
+    RuntimeException error
+) {
+    
+    public static TransferOutcome succeeded(TransferCommand command, Transaction transaction) {
+        return new TransferOutcome(command, transaction, null);
+    }
+    
+    public static TransferOutcome failed(TransferCommand command, Transaction failedTransaction, RuntimeException error) {
+        return new TransferOutcome(command, failedTransaction, error);
+    }
+    
+    public boolean isSuccessful() {
+        return error == null;
+    }
+    
+    public boolean isFailed() {
+        return error != null;
+    }
+}
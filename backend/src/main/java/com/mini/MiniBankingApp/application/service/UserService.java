@@ -2,11 +2,12 @@ package com.mini.MiniBankingApp.application.service;
 
 import com.mini.MiniBankingApp.application.dto.*;
 import com.mini.MiniBankingApp.application.mapper.UserMapper;
-import com.mini.MiniBankingApp.domain.user.RefreshToken;
 import com.mini.MiniBankingApp.domain.user.User;
 import com.mini.MiniBankingApp.exception.UserAlreadyExistsException;
 import com.mini.MiniBankingApp.exception.UserNotFoundException;
+import com.mini.MiniBankingApp.infrastructure.projection.UserSummary;
 import com.mini.MiniBankingApp.infrastructure.repository.UserRepository;
+import com.mini.MiniBankingApp.infrastructure.security.LoginUserDetails;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -15,9 +16,15 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.UUID;
+
+/**
+ * Registration and login run without a surrounding transaction: BCrypt hashing and matching take
+ * tens of milliseconds and must not hold a pooled connection. The repository calls and
+ * JwtService.generateRefreshToken run in their own short transactions.
+ */
 @Service
 @RequiredArgsConstructor
-@Transactional
 public class UserService {
     
     private final UserRepository userRepository;
@@ -56,36 +63,34 @@ public class UserService {
             )
         );
         
-        // Get user details
-        User user = userRepository.findByUsername(request.getUsername())
-            .orElseThrow(() -> new UserNotFoundException("User not found"));
+        // The user was read once, together with the password hash, by CustomUserDetailsService
+        UserSummary user = ((LoginUserDetails) authentication.getPrincipal()).getSummary();
         
         // Generate JWT token and refresh token
-        String token = jwtService.generateToken(user.getUsername());
-        RefreshToken refreshToken = jwtService.generateRefreshToken(user);
+        String token = jwtService.generateToken(user.id(), user.username());
+        String refreshToken = jwtService.generateRefreshToken(user.id());
         
-        return new LoginResponse(token, refreshToken.getToken(), userMapper.toResponse(user));
+        return new LoginResponse(token, refreshToken, userMapper.toResponse(user));
     }
     
     @Transactional(readOnly = true)
-    public UserResponse getUserByUsername(String username) {
-        User user = userRepository.findByUsername(username)
+    public UserResponse getUser(UUID userId) {
+        User user = userRepository.findById(userId)
             .orElseThrow(() -> new UserNotFoundException("User not found"));
         
         return userMapper.toResponse(user);
     }
     
+    @Transactional(readOnly = true)
     public LoginResponse refreshToken(RefreshTokenRequest request) {
-        String newAccessToken = jwtService.refreshAccessToken(request.getRefreshToken());
-        
-        // Get user from refresh token to include in response
-        String username = jwtService.getUsernameFromToken(newAccessToken);
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        // The user is fetched in the same query as the refresh token
+        User user = jwtService.getValidRefreshToken(request.getRefreshToken()).getUser();
+        String newAccessToken = jwtService.generateToken(user);
         
         return new LoginResponse(newAccessToken, userMapper.toResponse(user));
     }
     
+    @Transactional
     public void logout(String refreshToken) {
         jwtService.revokeRefreshToken(refreshToken);
     }
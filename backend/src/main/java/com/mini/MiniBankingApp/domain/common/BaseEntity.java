@@ -26,6 +26,6 @@ public abstract class BaseEntity {
     protected LocalDateTime updatedAt;
     
     protected BaseEntity() {
-        this.id = UUID.randomUUID();
+        this.id = UuidV7.generate();
     }
 }
\ No newline at end of file
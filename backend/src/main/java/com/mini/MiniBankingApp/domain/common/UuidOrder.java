@@ -0,0 +1,24 @@
+package com.mini.MiniBankingApp.domain.common;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Orders UUIDs the way PostgreSQL does, as unsigned bytes.
+ * UUID.compareTo compares the two halves as signed longs, which disagrees with ORDER BY id
+ * whenever the top bit of a half differs. Code that takes row locks in ID order next to
+ * ORDER BY id queries has to use this order, or the two can lock in opposite order and deadlock.
+ */
+public final class UuidOrder {
+
+    public static final Comparator<UUID> UNSIGNED = UuidOrder::compare;
+
+    private UuidOrder() {
+    }
+
+    public static int compare(UUID first, UUID second) {
+        int result = Long.compareUnsigned(first.getMostSignificantBits(), second.getMostSignificantBits());
+        return result != 0 ? result
+                : Long.compareUnsigned(first.getLeastSignificantBits(), second.getLeastSignificantBits());
+    }
+}
@@ -10,6 +10,8 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "transactions", schema = "minibanking_schema")
+@SequenceGenerator(name = LongBaseEntity.ID_GENERATOR, sequenceName = "transactions_seq",
+        allocationSize = LongBaseEntity.ID_ALLOCATION_SIZE)
 @Getter
 @NoArgsConstructor
 public class Transaction extends LongBaseEntity {
@@ -53,6 +55,15 @@ public class Transaction extends LongBaseEntity {
         this.status = status;
     }
 
+    /**
+     * Creates a validated transfer that is executed later, see {@link TransactionStatus#PENDING}
+     */
+    public static Transaction createPendingTransaction(UUID fromAccountId, UUID toAccountId, BigDecimal amount) {
+        Transaction transaction = new Transaction(fromAccountId, toAccountId, amount);
+        transaction.status = TransactionStatus.PENDING;
+        return transaction;
+    }
+
     public static Transaction createFailedTransaction(UUID fromAccountId, UUID toAccountId, BigDecimal amount) {
         return new Transaction(fromAccountId, toAccountId, amount, TransactionStatus.FAILED);
     }
@@ -69,6 +80,10 @@ public class Transaction extends LongBaseEntity {
         return TransactionStatus.SUCCESS.equals(this.status);
     }
     
+    public boolean isPending() {
+        return TransactionStatus.PENDING.equals(this.status);
+    }
+    
     public boolean isFailed() {
         return TransactionStatus.FAILED.equals(this.status);
     }
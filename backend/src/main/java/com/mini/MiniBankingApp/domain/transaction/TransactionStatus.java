@@ -1,6 +1,10 @@
 package com.mini.MiniBankingApp.domain.transaction;
 
 public enum TransactionStatus {
+    /**
+     * Accepted for asynchronous execution, the balances have not moved yet
+     */
+    PENDING,
     SUCCESS,
     FAILED
 }
\ No newline at end of file
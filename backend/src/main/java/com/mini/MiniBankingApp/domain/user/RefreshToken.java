@@ -10,13 +10,18 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "refresh_tokens")
+@SequenceGenerator(name = LongBaseEntity.ID_GENERATOR, sequenceName = "refresh_tokens_seq",
+        allocationSize = LongBaseEntity.ID_ALLOCATION_SIZE)
 @Getter
 @Setter
 @NoArgsConstructor
 public class RefreshToken extends LongBaseEntity {
     
-    @Column(name = "token", nullable = false, unique = true)
-    private String token;
+    /**
+     * SHA-256 hex digest of the token handed to the client, the token itself is never stored
+     */
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
@@ -28,8 +33,8 @@ public class RefreshToken extends LongBaseEntity {
     @Column(name = "is_revoked", nullable = false)
     private boolean revoked = false;
     
-    public RefreshToken(String token, User user, LocalDateTime expiresAt) {
-        this.token = token;
+    public RefreshToken(String tokenHash, User user, LocalDateTime expiresAt) {
+        this.tokenHash = tokenHash;
         this.user = user;
         this.expiresAt = expiresAt;
     }
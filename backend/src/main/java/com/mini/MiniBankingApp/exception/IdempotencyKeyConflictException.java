@@ -0,0 +1,26 @@
+package com.mini.MiniBankingApp.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown when an idempotency key is reused for a different request or its first request is still running
+ */
+@Getter
+public class IdempotencyKeyConflictException extends RuntimeException {
+
+    /**
+     * When to retry while the first request is still running, null when retrying cannot help
+     */
+    private final Duration retryAfter;
+
+    public IdempotencyKeyConflictException(String message) {
+        this(message, null);
+    }
+
+    public IdempotencyKeyConflictException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
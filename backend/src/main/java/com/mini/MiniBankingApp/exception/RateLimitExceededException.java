@@ -0,0 +1,19 @@
+package com.mini.MiniBankingApp.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a client has used up its request budget for an endpoint
+ */
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
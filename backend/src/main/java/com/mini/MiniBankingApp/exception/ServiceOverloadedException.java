@@ -0,0 +1,19 @@
+package com.mini.MiniBankingApp.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a request is shed because a bounded resource is saturated
+ */
+@Getter
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
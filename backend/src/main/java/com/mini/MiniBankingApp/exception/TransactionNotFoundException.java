@@ -0,0 +1,8 @@
+package com.mini.MiniBankingApp.exception;
+
+public class TransactionNotFoundException extends RuntimeException {
+
+    public TransactionNotFoundException(String message) {
+        super(message);
+    }
+}
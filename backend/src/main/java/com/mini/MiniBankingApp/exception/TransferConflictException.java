@@ -0,0 +1,12 @@
+package com.mini.MiniBankingApp.exception;
+
+public class TransferConflictException extends RuntimeException {
+
+    public TransferConflictException(String message) {
+        super(message);
+    }
+
+    public TransferConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,15 @@
+package com.mini.MiniBankingApp.exception;
+
+/**
+ * Thrown when a transfer was handed over but its result never came back, so it may or may not have been applied
+ */
+public class TransferOutcomeUnknownException extends RuntimeException {
+
+    public TransferOutcomeUnknownException(String message) {
+        super(message);
+    }
+
+    public TransferOutcomeUnknownException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
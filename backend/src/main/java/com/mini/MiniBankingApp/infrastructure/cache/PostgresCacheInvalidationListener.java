@@ -0,0 +1,138 @@
+package com.mini.MiniBankingApp.infrastructure.cache;
+
+import com.mini.MiniBankingApp.infrastructure.config.AccountOwnershipCacheProperties;
+import com.mini.MiniBankingApp.infrastructure.config.CacheInvalidation;
+import com.mini.MiniBankingApp.infrastructure.security.AccountOwnershipResolver;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Listens on the NOTIFY channels of the caches configured with POSTGRES_NOTIFY invalidation and evicts
+ * the entries changed on other instances. Holds one pooled connection for as long as the application runs,
+ * and none when no cache uses it. After a lost connection the listened caches are cleared completely,
+ * since notifications sent in the meantime are gone.
+ */
+@Component
+@Slf4j
+public class PostgresCacheInvalidationListener implements SmartLifecycle {
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final int POLL_TIMEOUT_MILLIS = 5_000;
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+
+    private final DataSource dataSource;
+    private final Map<String, Subscription> subscriptions = new LinkedHashMap<>();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public PostgresCacheInvalidationListener(DataSource dataSource,
+                                             AccountOwnershipResolver accountOwnershipResolver,
+                                             AccountOwnershipCacheProperties accountOwnershipCacheProperties) {
+        this.dataSource = dataSource;
+        if (accountOwnershipCacheProperties.getInvalidation() == CacheInvalidation.POSTGRES_NOTIFY) {
+            subscribe(accountOwnershipCacheProperties.getChannel(),
+                    new Subscription(accountOwnershipResolver::evictLocally, accountOwnershipResolver::evictAllLocally));
+        }
+    }
+
+    private void subscribe(String channel, Subscription subscription) {
+        // LISTEN takes an identifier, not a bind parameter
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid cache invalidation channel name: " + channel);
+        }
+        if (subscriptions.putIfAbsent(channel, subscription) != null) {
+            throw new IllegalArgumentException("Cache invalidation channel " + channel + " is used by two caches");
+        }
+    }
+
+    @Override
+    public void start() {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        running = true;
+        worker = Thread.ofPlatform().daemon().name("cache-invalidation").start(this::listen);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    for (String channel : subscriptions.keySet()) {
+                        statement.execute("LISTEN " + channel);
+                    }
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                log.info("Listening for cache invalidations on channels {}", subscriptions.keySet());
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        evict(notification.getName(), notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener lost its connection: {}", e.getMessage());
+                subscriptions.values().forEach(subscription -> subscription.evictAll().run());
+                sleepBeforeReconnect();
+            }
+        }
+    }
+
+    private void evict(String channel, String payload) {
+        Subscription subscription = subscriptions.get(channel);
+        if (subscription == null) {
+            return;
+        }
+        try {
+            subscription.evict().accept(UUID.fromString(payload));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed cache invalidation on channel {}: {}", channel, payload);
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(RECONNECT_DELAY);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private record Subscription(Consumer<UUID> evict, Runnable evictAll) {}
+}
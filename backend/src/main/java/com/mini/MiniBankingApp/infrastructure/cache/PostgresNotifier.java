@@ -0,0 +1,35 @@
+package com.mini.MiniBankingApp.infrastructure.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Sends cache invalidations to the other instances, received by PostgresCacheInvalidationListener
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PostgresNotifier {
+
+    private final DataSource dataSource;
+
+    public void send(String channel, String payload) {
+        // A fresh auto-commit connection, the committed transaction may still be bound to this thread
+        // and a NOTIFY is only delivered when its own transaction commits
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            statement.setString(1, channel);
+            statement.setString(2, payload);
+            statement.execute();
+        } catch (SQLException e) {
+            // Other nodes fall back to the TTL for this entry
+            log.warn("Could not broadcast invalidation {} on channel {}: {}", payload, channel, e.getMessage());
+        }
+    }
+}
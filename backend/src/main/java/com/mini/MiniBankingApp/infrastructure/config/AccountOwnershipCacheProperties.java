@@ -0,0 +1,31 @@
+package com.mini.MiniBankingApp.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "account-ownership-cache")
+@Getter
+@Setter
+public class AccountOwnershipCacheProperties {
+
+    private boolean enabled = true;
+
+    private long maximumSize = 50_000;
+
+    /**
+     * How long a verified (user, account) pair is trusted without asking the database again
+     */
+    private Duration timeToLive = Duration.ofSeconds(30);
+
+    private CacheInvalidation invalidation = CacheInvalidation.LOCAL;
+
+    /**
+     * PostgreSQL NOTIFY channel used when invalidation is POSTGRES_NOTIFY
+     */
+    private String channel = "account_ownership_invalidation";
+}
@@ -0,0 +1,15 @@
+package com.mini.MiniBankingApp.infrastructure.config;
+
+/**
+ * How changed entries are evicted from the local caches
+ */
+public enum CacheInvalidation {
+    /**
+     * Evicts only this node, enough for a single instance
+     */
+    LOCAL,
+    /**
+     * Also broadcasts the changed ID with pg_notify so every instance listening on the channel evicts it
+     */
+    POSTGRES_NOTIFY
+}
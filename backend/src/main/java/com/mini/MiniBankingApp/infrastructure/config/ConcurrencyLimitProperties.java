@@ -0,0 +1,52 @@
+package com.mini.MiniBankingApp.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "concurrency-limit")
+@Getter
+@Setter
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Path patterns of the database bound requests sharing the limit
+     */
+    private List<String> paths = new ArrayList<>(List.of("/api/transfers/**"));
+
+    /**
+     * Path patterns left out of the limit, e.g. long running streamed exports
+     */
+    private List<String> excludedPaths = new ArrayList<>(List.of("/api/transfers/transactions/account/*/export"));
+
+    private int initialLimit = 20;
+
+    private int minLimit = 4;
+
+    private int maxLimit = 200;
+
+    /**
+     * How much a sample above the long term latency is tolerated before the limit shrinks
+     */
+    private double rttTolerance = 1.5;
+
+    /**
+     * Weight of each new limit estimate, lower reacts slower but steadier
+     */
+    private double smoothing = 0.2;
+
+    /**
+     * Samples averaged into the long term latency
+     */
+    private int longWindow = 600;
+
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
@@ -2,16 +2,29 @@ package com.mini.MiniBankingApp.infrastructure.config;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import javax.sql.DataSource;
+
 @Configuration
 public class DatabaseConfig {
 
     @Value("${spring.jpa.properties.hibernate.default_schema:minibanking_schema}")
     private String schemaName;
 
+    /**
+     * Replaces the auto-configured spring.sql.init initializer, see LockedSqlScriptDatabaseInitializer
+     */
+    @Bean
+    public SqlDataSourceScriptDatabaseInitializer dataSourceScriptDatabaseInitializer(DataSource dataSource,
+                                                                                     SqlInitializationProperties properties) {
+        return new LockedSqlScriptDatabaseInitializer(dataSource, properties);
+    }
+
     @Bean
     public CommandLineRunner createSchemaIfNotExists(JdbcTemplate jdbcTemplate) {
         return args -> {
@@ -0,0 +1,31 @@
+package com.mini.MiniBankingApp.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+@Component
+@ConfigurationProperties(prefix = "hot-accounts")
+@Getter
+@Setter
+public class HotAccountProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Accounts whose incoming credits are spread over shard rows
+     */
+    private Set<UUID> accountIds = new HashSet<>();
+
+    /**
+     * Shard rows per hot account, more shards mean less contention but more rows to sum on reads
+     */
+    private int shards = 8;
+
+    private String consolidationCron = "*/30 * * * * *";
+}
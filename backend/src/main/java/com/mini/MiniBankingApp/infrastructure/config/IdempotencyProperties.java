@@ -0,0 +1,45 @@
+package com.mini.MiniBankingApp.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "idempotency")
+@Getter
+@Setter
+public class IdempotencyProperties {
+
+    /**
+     * How long a key and its stored response are kept, retries after that run the transfer again
+     */
+    private Duration timeToLive = Duration.ofHours(24);
+
+    /**
+     * Completed keys kept in memory on each instance in front of the table
+     */
+    private long cacheMaximumSize = 100_000;
+
+    /**
+     * Retry-After of the 409 a duplicate gets while the first request with its key is still running
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    private Purge purge = new Purge();
+
+    /**
+     * Scheduled removal of expired keys, in batches to keep row locks short
+     */
+    @Getter
+    @Setter
+    public static class Purge {
+        private boolean enabled = true;
+
+        private int batchSize = 1_000;
+
+        private String cron = "0 */15 * * * *";
+    }
+}
@@ -15,13 +15,41 @@ public class JwtProperties {
     
     private String secret = "mySecretKey";
     
-    private Duration expiration = Duration.ofHours(24);
+    private Duration expiration = Duration.ofMinutes(15);
     
     private Refresh refresh = new Refresh();
     
+    private VerificationCache verificationCache = new VerificationCache();
+    
     @Getter
     @Setter
     public static class Refresh {
         private Duration expiration = Duration.ofDays(7);
+        
+        private Purge purge = new Purge();
+    }
+    
+    /**
+     * Scheduled removal of expired and revoked refresh tokens, in batches to keep row locks short
+     */
+    @Getter
+    @Setter
+    public static class Purge {
+        private boolean enabled = true;
+        
+        private int batchSize = 1_000;
+        
+        private String cron = "0 */15 * * * *";
+    }
+    
+    /**
+     * Recently verified access tokens, kept until they expire so repeated requests skip signature verification
+     */
+    @Getter
+    @Setter
+    public static class VerificationCache {
+        private boolean enabled = true;
+        
+        private long maximumSize = 10_000;
     }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.mini.MiniBankingApp.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "ledger")
+@Getter
+@Setter
+public class LedgerProperties {
+
+    /**
+     * Runs transfers through the in-memory ledger engine instead of database transactions
+     */
+    private boolean enabled = false;
+
+    /**
+     * Writer threads, accounts are spread over them by ID hash. Must not change while journals
+     * still hold records that are not persisted.
+     */
+    private int partitions = 4;
+
+    /**
+     * Commands each partition can queue, rounded up to a power of two. A full queue rejects with 503.
+     */
+    private int ringCapacity = 8_192;
+
+    private String journalDirectory = "./data/ledger";
+
+    /**
+     * Records per memory mapped journal segment file
+     */
+    private int recordsPerSegment = 1_000_000;
+
+    /**
+     * Forces journal writes to disk before acknowledging, turning it off trades durability for latency
+     */
+    private boolean fsync = true;
+
+    /**
+     * Journal records written to the database per transaction by the persister
+     */
+    private int persistBatchSize = 500;
+
+    private Duration acknowledgeTimeout = Duration.ofSeconds(5);
+
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
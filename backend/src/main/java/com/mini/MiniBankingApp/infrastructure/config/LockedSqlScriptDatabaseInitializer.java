@@ -0,0 +1,140 @@
+package com.mini.MiniBankingApp.infrastructure.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * Runs the db/migration scripts while holding a PostgreSQL session advisory lock, so nodes starting
+ * together run them one after the other instead of racing (e.g. the V003 partition conversion).
+ * The lock is held on a connection of its own and released when that connection closes, even if a script fails.
+ * Each script runs once: it is recorded in schema_migrations with a checksum in the same transaction it runs in,
+ * later starts skip it, and a script changed after it was applied stops the start instead of being run again.
+ */
+@Slf4j
+public class LockedSqlScriptDatabaseInitializer extends SqlDataSourceScriptDatabaseInitializer {
+
+    private static final String LOCK_KEY = "minibanking_schema migrations";
+
+    private final DataSource dataSource;
+
+    public LockedSqlScriptDatabaseInitializer(DataSource dataSource, SqlInitializationProperties properties) {
+        super(dataSource, properties);
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public boolean initializeDatabase() {
+        try (Connection lockConnection = dataSource.getConnection();
+             Statement statement = lockConnection.createStatement()) {
+            long startedAt = System.nanoTime();
+            statement.execute("SELECT pg_advisory_lock(hashtext('" + LOCK_KEY + "'))");
+            log.debug("Acquired the schema migration lock after {} ms", (System.nanoTime() - startedAt) / 1_000_000);
+            try {
+                return super.initializeDatabase();
+            } finally {
+                statement.execute("SELECT pg_advisory_unlock(hashtext('" + LOCK_KEY + "'))");
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Could not take the schema migration lock", e);
+        }
+    }
+
+    /**
+     * Runs the scripts not recorded in schema_migrations yet, in file name order
+     */
+    @Override
+    protected void runScripts(Scripts scripts) {
+        try (Connection connection = dataSource.getConnection()) {
+            Map<String, String> applied = appliedScripts(connection);
+            for (Resource script : scripts) {
+                String name = script.getFilename();
+                String checksum = checksum(script);
+                String appliedChecksum = applied.get(name);
+                if (appliedChecksum == null) {
+                    apply(connection, scripts, script, name, checksum);
+                } else if (!appliedChecksum.equals(checksum)) {
+                    throw new IllegalStateException("Migration " + name + " was changed after it was applied, " +
+                            "add the change as a new script instead");
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Could not run the schema migrations", e);
+        }
+    }
+
+    private static Map<String, String> appliedScripts(Connection connection) throws SQLException {
+        Map<String, String> applied = new HashMap<>();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS minibanking_schema.schema_migrations (" +
+                    "script varchar(255) PRIMARY KEY, checksum varchar(64) NOT NULL, applied_at timestamp NOT NULL)");
+            try (ResultSet resultSet = statement.executeQuery(
+                    "SELECT script, checksum FROM minibanking_schema.schema_migrations")) {
+                while (resultSet.next()) {
+                    applied.put(resultSet.getString("script"), resultSet.getString("checksum"));
+                }
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Runs the script and records it in one transaction, so a failed script is neither half applied nor recorded
+     */
+    private static void apply(Connection connection, Scripts scripts, Resource script, String name, String checksum)
+            throws SQLException {
+        long startedAt = System.nanoTime();
+        connection.setAutoCommit(false);
+        try {
+            ScriptUtils.executeSqlScript(connection, new EncodedResource(script, scripts.getEncoding()),
+                    scripts.isContinueOnError(), false, ScriptUtils.DEFAULT_COMMENT_PREFIXES,
+                    scripts.getSeparator() != null ? scripts.getSeparator() : ScriptUtils.DEFAULT_STATEMENT_SEPARATOR,
+                    ScriptUtils.DEFAULT_BLOCK_COMMENT_START_DELIMITER, ScriptUtils.DEFAULT_BLOCK_COMMENT_END_DELIMITER);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO minibanking_schema.schema_migrations (script, checksum, applied_at) VALUES (?, ?, ?)")) {
+                statement.setString(1, name);
+                statement.setString(2, checksum);
+                statement.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+                statement.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        log.info("Applied migration {} in {} ms", name, (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    private static String checksum(Resource script) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(script.getContentAsByteArray()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read migration " + script.getFilename(), e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.mini.MiniBankingApp.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "password-hashing")
+@Getter
+@Setter
+public class PasswordHashingProperties {
+
+    /**
+     * Threads hashing passwords, zero or less uses the number of available cores
+     */
+    private int threads = 0;
+
+    /**
+     * Hash jobs allowed to wait for a thread, further ones are rejected right away
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * BCrypt cost for new hashes. Stored hashes with a lower cost are rehashed on the next successful login.
+     */
+    private int bcryptStrength = 10;
+
+    /**
+     * Retry-After sent with a rejected request
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
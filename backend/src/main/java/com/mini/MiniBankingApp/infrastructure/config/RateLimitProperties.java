@@ -0,0 +1,69 @@
+package com.mini.MiniBankingApp.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+@Getter
+@Setter
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Buckets unused for this long are dropped. Keep it above the longest rule period,
+     * a bucket idle for a full period is full again anyway.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    private long maximumKeys = 100_000;
+
+    private List<Rule> rules = new ArrayList<>();
+
+    /**
+     * What a bucket is kept per
+     */
+    public enum KeyType {
+        /**
+         * The authenticated user
+         */
+        USER,
+        /**
+         * The account in the accountId path variable, or the source accounts of a transfer request body,
+         * kept per caller
+         */
+        ACCOUNT
+    }
+
+    @Getter
+    @Setter
+    public static class Rule {
+        private String name;
+
+        /**
+         * HTTP method the rule applies to, empty for any
+         */
+        private String method;
+
+        /**
+         * Path pattern, e.g. /api/transfers/transactions/account/{accountId}/**
+         */
+        private String path;
+
+        private KeyType key = KeyType.USER;
+
+        /**
+         * Requests allowed per period, also the largest burst
+         */
+        private int capacity = 20;
+
+        private Duration period = Duration.ofMinutes(1);
+    }
+}
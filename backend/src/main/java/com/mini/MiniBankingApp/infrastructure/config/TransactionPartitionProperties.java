@@ -0,0 +1,32 @@
+package com.mini.MiniBankingApp.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "transaction-partitioning")
+@Getter
+@Setter
+public class TransactionPartitionProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Monthly partitions kept created ahead of the current month
+     */
+    private int monthsAhead = 3;
+
+    /**
+     * Full months of history kept attached, older partitions are archived. Zero or less keeps everything.
+     */
+    private int retentionMonths = 24;
+
+    /**
+     * Schema archived partitions are moved into
+     */
+    private String archiveSchema = "minibanking_archive";
+
+    private String maintenanceCron = "0 0 3 * * *";
+}
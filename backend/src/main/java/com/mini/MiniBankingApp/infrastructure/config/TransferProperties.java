@@ -0,0 +1,117 @@
+package com.mini.MiniBankingApp.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "transfer")
+@Getter
+@Setter
+public class TransferProperties {
+
+    private LockingStrategy locking = LockingStrategy.OPTIMISTIC;
+
+    private Retry retry = new Retry();
+
+    private GroupCommit groupCommit = new GroupCommit();
+
+    private Async async = new Async();
+
+    /**
+     * How concurrent transfers touching the same accounts are serialized
+     */
+    public enum LockingStrategy {
+        /**
+         * Relies on the account version column and retries the whole transfer on conflict
+         */
+        OPTIMISTIC,
+        /**
+         * Locks both accounts with SELECT ... FOR UPDATE in account ID order before mutating them
+         */
+        PESSIMISTIC,
+        /**
+         * Skips entity hydration and moves balances with guarded single-statement UPDATEs
+         */
+        CONDITIONAL_UPDATE
+    }
+
+    @Getter
+    @Setter
+    public static class Retry {
+        private int maxAttempts = 3;
+
+        private Duration initialBackoff = Duration.ofMillis(10);
+
+        private Duration maxBackoff = Duration.ofMillis(200);
+    }
+
+    /**
+     * Collects concurrently submitted transfers and applies them in one database transaction
+     */
+    @Getter
+    @Setter
+    public static class GroupCommit {
+        private boolean enabled = false;
+
+        /**
+         * Transfers applied per database transaction at most
+         */
+        private int maxBatchSize = 64;
+
+        /**
+         * How long a batch waits for more transfers after its first one arrived
+         */
+        private Duration maxWait = Duration.ofMillis(2);
+
+        /**
+         * Threads committing batches, each holds one pooled connection while it commits
+         */
+        private int workers = 2;
+
+        /**
+         * Transfers waiting for a batch at most, more are rejected with 503
+         */
+        private int queueCapacity = 4_096;
+
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+
+    /**
+     * Execution of transfers submitted to POST /api/transfers/async, on virtual threads
+     */
+    @Getter
+    @Setter
+    public static class Async {
+        /**
+         * Transfers executing at once, 0 takes half of the connection pool and leaves the rest to synchronous requests
+         */
+        private int maxConcurrency = 0;
+
+        /**
+         * Accepted transfers waiting or executing at most, more are rejected with 503
+         */
+        private int queueCapacity = 10_000;
+
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        /**
+         * How long shutdown waits for executing transfers, transfers still pending are resumed on the next start
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Pending transfers untouched for this long are resumed on start. Keep it above the time a transfer
+         * waits in the queue, younger ones may still be executing on another instance.
+         */
+        private Duration resumeGracePeriod = Duration.ofMinutes(1);
+
+        /**
+         * Pending transfers claimed and resumed at once, the next batch is claimed when they are done
+         */
+        private int resumeBatchSize = 100;
+    }
+}
@@ -0,0 +1,26 @@
+package com.mini.MiniBankingApp.infrastructure.config;
+
+import com.mini.MiniBankingApp.infrastructure.ratelimit.ConcurrencyLimitInterceptor;
+import com.mini.MiniBankingApp.infrastructure.ratelimit.RateLimitInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final RateLimitInterceptor rateLimitInterceptor;
+    private final ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+    private final ConcurrencyLimitProperties concurrencyLimitProperties;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/api/**");
+        // After the rate limits, so requests that are rejected anyway never take a slot
+        registry.addInterceptor(concurrencyLimitInterceptor)
+                .addPathPatterns(concurrencyLimitProperties.getPaths())
+                .excludePathPatterns(concurrencyLimitProperties.getExcludedPaths());
+    }
+}
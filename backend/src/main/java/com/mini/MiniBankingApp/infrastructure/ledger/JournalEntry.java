@@ -0,0 +1,17 @@
+package com.mini.MiniBankingApp.infrastructure.ledger;
+
+import java.util.UUID;
+
+/**
+ * One accepted transfer as recorded in a partition journal
+ * @param sequence position in the journal, starting at 1
+ * @param amountCents amount with two decimals, as an unscaled long
+ * @param createdAtMicros creation time, LocalDateTime encoded as microseconds since the epoch at UTC
+ */
+record JournalEntry(long sequence,
+                    long transactionId,
+                    UUID fromAccountId,
+                    UUID toAccountId,
+                    long amountCents,
+                    long createdAtMicros) {
+}
@@ -0,0 +1,10 @@
+package com.mini.MiniBankingApp.infrastructure.ledger;
+
+import java.util.UUID;
+
+/**
+ * Immutable facts about an account the ledger needs to validate a transfer from any partition
+ * @param accountType account_type discriminator value
+ */
+record LedgerAccount(UUID userId, String accountType) {
+}
@@ -0,0 +1,272 @@
+package com.mini.MiniBankingApp.infrastructure.ledger;
+
+import com.mini.MiniBankingApp.domain.account.Account;
+import com.mini.MiniBankingApp.domain.transaction.Transaction;
+import com.mini.MiniBankingApp.exception.ServiceOverloadedException;
+import com.mini.MiniBankingApp.exception.TransferOutcomeUnknownException;
+import com.mini.MiniBankingApp.infrastructure.config.LedgerProperties;
+import jakarta.persistence.DiscriminatorValue;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory ledger that executes transfers without database transactions on the request path.
+ * Accounts are spread over single-writer partitions by ID, so a transfer never waits for a lock;
+ * it is acknowledged once its journal record is on disk and written to the database shortly after.
+ * On start the balances are loaded from the database and journal records that did not reach it yet
+ * are replayed, so the database balances are caught up before the first request is served.
+ */
+@Component
+@ConditionalOnProperty(prefix = "ledger", name = "enabled", havingValue = "true")
+@Slf4j
+public class LedgerEngine implements SmartLifecycle {
+
+    private static final Pattern SEGMENT_FILE = Pattern.compile("partition-(\\d+)-\\d+\\.journal");
+    private static final long REGISTER_RETRY_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    // Reserving transaction IDs is a rare database round-trip, kept off the writer threads
+    private static final Executor RESERVE_EXECUTOR = task -> Thread.ofVirtual().name("ledger-id-reserve").start(task);
+
+    private final LedgerProperties properties;
+    private final LedgerStore store;
+    private final Map<UUID, LedgerAccount> accounts = new ConcurrentHashMap<>();
+
+    private LedgerPartition[] partitions;
+    private volatile boolean running;
+
+    public LedgerEngine(LedgerProperties properties, JdbcTemplate jdbcTemplate,
+                        PlatformTransactionManager transactionManager) {
+        if (properties.getPartitions() < 1) {
+            throw new IllegalArgumentException("Ledger needs at least one partition");
+        }
+        this.properties = properties;
+        this.store = new LedgerStore(jdbcTemplate, transactionManager);
+    }
+
+    /**
+     * Queues the transfer on the partition of the source account and waits for its acknowledgement
+     * @return the recorded transaction; its row reaches the database asynchronously
+     */
+    public Transaction transfer(UUID userId, UUID fromAccountId, UUID toAccountId, BigDecimal amount) {
+        long amountCents = toCents(amount);
+        CompletableFuture<Transaction> result = new CompletableFuture<>();
+        LedgerPartition.Transfer transfer = new LedgerPartition.Transfer(
+                userId, fromAccountId, toAccountId, amount, amountCents, result);
+
+        LedgerPartition partition = partitionOf(fromAccountId);
+        if (!running || !partition.submit(transfer)) {
+            throw new ServiceOverloadedException(partition.isFailed() ? "Ledger partition stopped after a failure"
+                    : "Ledger partition queue is full", properties.getRetryAfter());
+        }
+
+        try {
+            return result.get(properties.getAcknowledgeTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Ledger transfer failed", e.getCause());
+        } catch (TimeoutException e) {
+            // The transfer may still be applied, its transaction row shows up in the history if it was
+            throw new TransferOutcomeUnknownException("Ledger did not acknowledge the transfer in time");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransferOutcomeUnknownException("Interrupted while waiting for the ledger", e);
+        }
+    }
+
+    /**
+     * Makes an account created through JPA known to the ledger once the surrounding transaction commits,
+     * or right away outside a transaction
+     */
+    public void registerAccount(Account account) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    register(account);
+                }
+            });
+        } else {
+            register(account);
+        }
+    }
+
+    private void register(Account account) {
+        if (!running) {
+            throw new IllegalStateException("Ledger is not running");
+        }
+        LedgerPartition.Register register = new LedgerPartition.Register(account.getId(), toCents(account.getBalance()));
+        // Registration is rare and should not be lost, so it waits out a full queue, but only
+        // for as long as a transfer waits for its acknowledgement, parked instead of spinning
+        LedgerPartition partition = partitionOf(account.getId());
+        long deadline = System.nanoTime() + properties.getAcknowledgeTimeout().toNanos();
+        while (!partition.submit(register)) {
+            if (partition.isFailed() || System.nanoTime() - deadline > 0) {
+                // The account row is committed, the ledger loads it on its next start
+                throw new ServiceOverloadedException("Ledger partition is not accepting commands, account " + account.getId() +
+                        " is not registered until the ledger restarts", properties.getRetryAfter());
+            }
+            LockSupport.parkNanos(REGISTER_RETRY_NANOS);
+        }
+        String accountType = account.getClass().getAnnotation(DiscriminatorValue.class).value();
+        accounts.put(account.getId(), new LedgerAccount(account.getUserId(), accountType));
+    }
+
+    @Override
+    public void start() {
+        Path directory = Paths.get(properties.getJournalDirectory());
+        checkPartitionCount(directory);
+
+        Map<UUID, long[]> balances = new HashMap<>();
+        for (LedgerStore.AccountRow row : store.loadAccounts()) {
+            accounts.put(row.id(), new LedgerAccount(row.userId(), row.accountType()));
+            balances.put(row.id(), new long[]{toCents(row.balance())});
+        }
+        Map<Integer, Long> checkpoints = store.loadCheckpoints();
+
+        int count = properties.getPartitions();
+        LedgerJournal[] journals = new LedgerJournal[count];
+        for (int id = 0; id < count; id++) {
+            long checkpoint = checkpoints.getOrDefault(id, 0L);
+            journals[id] = LedgerJournal.open(directory, id, properties.getRecordsPerSegment(), checkpoint);
+            replay(id, journals[id], checkpoint, balances);
+        }
+
+        List<Map<UUID, long[]>> partitionBalances = new ArrayList<>(count);
+        for (int id = 0; id < count; id++) {
+            partitionBalances.add(new HashMap<>());
+        }
+        balances.forEach((accountId, balance) -> partitionBalances.get(partitionIndex(accountId)).put(accountId, balance));
+
+        long transactionIdBlockSize = store.loadTransactionIdBlockSize();
+        partitions = new LedgerPartition[count];
+        for (int id = 0; id < count; id++) {
+            TransactionIdAllocator transactionIds = new TransactionIdAllocator(
+                    store::reserveTransactionIds, transactionIdBlockSize, RESERVE_EXECUTOR);
+            partitions[id] = new LedgerPartition(id, journals[id], store, transactionIds, accounts, partitionBalances.get(id),
+                    this::partitionOf, properties.getRingCapacity(), properties.isFsync(),
+                    properties.getPersistBatchSize());
+        }
+        for (LedgerPartition partition : partitions) {
+            partition.start();
+        }
+        running = true;
+        log.info("Ledger started with {} partitions and {} accounts", count, accounts.size());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            for (LedgerPartition partition : partitions) {
+                partition.stop();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Ledger stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before the web server accepts requests and stops after it stopped sending them
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    /**
+     * Applies the journal records the database has not seen to the loaded balances and writes them
+     * synchronously, moving the checkpoint forward before any new transfer is accepted
+     */
+    private void replay(int partition, LedgerJournal journal, long checkpoint, Map<UUID, long[]> balances) {
+        List<JournalEntry> pending = new ArrayList<>();
+        journal.replay(checkpoint, entry -> {
+            balances.computeIfAbsent(entry.fromAccountId(), accountId -> new long[1])[0] -= entry.amountCents();
+            balances.computeIfAbsent(entry.toAccountId(), accountId -> new long[1])[0] += entry.amountCents();
+            pending.add(entry);
+            if (pending.size() == properties.getPersistBatchSize()) {
+                store.persist(partition, pending);
+                pending.clear();
+            }
+        });
+        if (!pending.isEmpty()) {
+            store.persist(partition, pending);
+        }
+        if (journal.lastSequence() > checkpoint) {
+            log.info("Ledger partition {} replayed journal records {} to {}", partition, checkpoint + 1, journal.lastSequence());
+        }
+    }
+
+    /**
+     * Refuses to start when journals exist for partitions beyond the configured count,
+     * since their records would never be replayed
+     */
+    private void checkPartitionCount(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> SEGMENT_FILE.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .mapToInt(matcher -> Integer.parseInt(matcher.group(1)))
+                    .filter(partition -> partition >= properties.getPartitions())
+                    .findAny()
+                    .ifPresent(partition -> {
+                        throw new IllegalStateException("Ledger journal of partition " + partition +
+                                " exists but only " + properties.getPartitions() + " partitions are configured");
+                    });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list ledger journal " + directory, e);
+        }
+    }
+
+    private LedgerPartition partitionOf(UUID accountId) {
+        return partitions[partitionIndex(accountId)];
+    }
+
+    private int partitionIndex(UUID accountId) {
+        return Math.floorMod(accountId.hashCode(), properties.getPartitions());
+    }
+
+    private static long toCents(BigDecimal amount) {
+        try {
+            return amount.setScale(2).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount must have at most two decimal places: " + amount);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.mini.MiniBankingApp.infrastructure.ledger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only write-ahead journal of one ledger partition, kept in memory mapped segment files.
+ * Records have a fixed size and are numbered from 1, so a sequence maps straight to a segment and offset.
+ * Each record ends with a CRC32C; replay stops at the first empty or torn record.
+ * Appends come from the partition writer only, segment cleanup from its persister.
+ */
+final class LedgerJournal {
+
+    static final int RECORD_SIZE = 72;
+    private static final int CHECKSUM_OFFSET = 64;
+
+    private final Path directory;
+    private final int partition;
+    private final int recordsPerSegment;
+
+    private MappedByteBuffer segment;
+    private long segmentIndex = -1;
+    private long lastSequence;
+
+    private LedgerJournal(Path directory, int partition, int recordsPerSegment) {
+        this.directory = directory;
+        this.partition = partition;
+        this.recordsPerSegment = recordsPerSegment;
+    }
+
+    /**
+     * Opens the journal and positions it after the last intact record, or after the persisted
+     * sequence when the segments holding it have already been cleaned up
+     */
+    static LedgerJournal open(Path directory, int partition, int recordsPerSegment, long persistedSequence) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create ledger journal directory " + directory, e);
+        }
+        LedgerJournal journal = new LedgerJournal(directory, partition, recordsPerSegment);
+        journal.lastSequence = Math.max(journal.findLastSequence(), persistedSequence);
+        return journal;
+    }
+
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Writes the next record into the mapped segment; it is durable only after {@link #force()}
+     */
+    JournalEntry append(long transactionId, UUID fromAccountId, UUID toAccountId, long amountCents, long createdAtMicros) {
+        long sequence = lastSequence + 1;
+        MappedByteBuffer buffer = segmentFor(sequence);
+        int offset = offsetOf(sequence);
+
+        buffer.putLong(offset, sequence);
+        buffer.putLong(offset + 8, transactionId);
+        buffer.putLong(offset + 16, fromAccountId.getMostSignificantBits());
+        buffer.putLong(offset + 24, fromAccountId.getLeastSignificantBits());
+        buffer.putLong(offset + 32, toAccountId.getMostSignificantBits());
+        buffer.putLong(offset + 40, toAccountId.getLeastSignificantBits());
+        buffer.putLong(offset + 48, amountCents);
+        buffer.putLong(offset + 56, createdAtMicros);
+        buffer.putInt(offset + CHECKSUM_OFFSET, checksum(buffer, offset));
+
+        lastSequence = sequence;
+        return new JournalEntry(sequence, transactionId, fromAccountId, toAccountId, amountCents, createdAtMicros);
+    }
+
+    void force() {
+        if (segment != null) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Reads every intact record after the given sequence, in order
+     */
+    void replay(long afterSequence, Consumer<JournalEntry> consumer) {
+        for (long sequence = afterSequence + 1; sequence <= lastSequence; sequence++) {
+            MappedByteBuffer buffer = segmentFor(sequence);
+            consumer.accept(read(buffer, offsetOf(sequence)));
+        }
+    }
+
+    /**
+     * Deletes the segment files that only hold records up to the given sequence
+     */
+    void deleteSegmentsUpTo(long persistedSequence) {
+        long firstNeededSegment = persistedSequence / recordsPerSegment;
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> segmentIndexOf(file) >= 0 && segmentIndexOf(file) < firstNeededSegment)
+                    .forEach(file -> {
+                        try {
+                            Files.deleteIfExists(file);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not clean up ledger journal " + directory, e);
+        }
+    }
+
+    private long findLastSequence() {
+        long index = firstSegmentIndex();
+        long last = index * recordsPerSegment;
+        while (Files.exists(segmentPath(index))) {
+            MappedByteBuffer buffer = map(index);
+            for (int slot = 0; slot < recordsPerSegment; slot++) {
+                int offset = slot * RECORD_SIZE;
+                long sequence = buffer.getLong(offset);
+                if (sequence != last + 1 || buffer.getInt(offset + CHECKSUM_OFFSET) != checksum(buffer, offset)) {
+                    // A torn record at the end is overwritten by the next append
+                    return last;
+                }
+                last = sequence;
+            }
+            index++;
+        }
+        return last;
+    }
+
+    private long firstSegmentIndex() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.mapToLong(this::segmentIndexOf)
+                    .filter(index -> index >= 0)
+                    .min()
+                    .orElse(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list ledger journal " + directory, e);
+        }
+    }
+
+    private JournalEntry read(MappedByteBuffer buffer, int offset) {
+        return new JournalEntry(
+                buffer.getLong(offset),
+                buffer.getLong(offset + 8),
+                new UUID(buffer.getLong(offset + 16), buffer.getLong(offset + 24)),
+                new UUID(buffer.getLong(offset + 32), buffer.getLong(offset + 40)),
+                buffer.getLong(offset + 48),
+                buffer.getLong(offset + 56));
+    }
+
+    private MappedByteBuffer segmentFor(long sequence) {
+        long index = (sequence - 1) / recordsPerSegment;
+        if (index != segmentIndex) {
+            if (segment != null) {
+                segment.force();
+            }
+            segment = map(index);
+            segmentIndex = index;
+        }
+        return segment;
+    }
+
+    private int offsetOf(long sequence) {
+        return (int) ((sequence - 1) % recordsPerSegment) * RECORD_SIZE;
+    }
+
+    private MappedByteBuffer map(long index) {
+        try (FileChannel channel = FileChannel.open(segmentPath(index),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map ledger journal segment " + segmentPath(index), e);
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("partition-%d-%08d.journal", partition, index));
+    }
+
+    private long segmentIndexOf(Path file) {
+        String name = file.getFileName().toString();
+        String prefix = "partition-" + partition + "-";
+        if (!name.startsWith(prefix) || !name.endsWith(".journal")) {
+            return -1;
+        }
+        return Long.parseLong(name.substring(prefix.length(), name.length() - ".journal".length()));
+    }
+
+    private static int checksum(MappedByteBuffer buffer, int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, CHECKSUM_OFFSET));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,317 @@
+package com.mini.MiniBankingApp.infrastructure.ledger;
+
+import com.mini.MiniBankingApp.domain.transaction.Transaction;
+import com.mini.MiniBankingApp.exception.AccountNotFoundException;
+import com.mini.MiniBankingApp.exception.CurrencyMismatchException;
+import com.mini.MiniBankingApp.exception.InsufficientFundsException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * One shard of the ledger. A single writer thread owns the balances of the partition's accounts,
+ * validates transfers against them, appends accepted ones to the journal and acknowledges them once
+ * the batch is on disk. A persister thread then writes the journal records to the database.
+ * Credits to accounts of other partitions are handed to their writer after the journal is forced,
+ * so money can only be spent once the debit that produced it is durable.
+ */
+@Slf4j
+final class LedgerPartition {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int MAX_COMMANDS_PER_BATCH = 256;
+    private static final long PERSIST_POLL_MILLIS = 100;
+    private static final long PERSIST_RETRY_MILLIS = 1_000;
+
+    private final int id;
+    private final LedgerJournal journal;
+    private final LedgerStore store;
+    private final TransactionIdAllocator transactionIds;
+    private final Map<UUID, LedgerAccount> accounts;
+    private final Function<UUID, LedgerPartition> router;
+    private final boolean fsync;
+    private final int persistBatchSize;
+
+    private final MpscRingBuffer<Command> commands;
+    private final Queue<Credit> credits = new ConcurrentLinkedQueue<>();
+    private final BlockingQueue<JournalEntry> unpersisted;
+
+    // Owned by the writer thread
+    private final Map<UUID, long[]> balances;
+    private final List<Accepted> accepted = new ArrayList<>();
+
+    private volatile boolean running;
+    private volatile boolean failed;
+    private volatile boolean writerDone;
+    private Thread writer;
+    private Thread persister;
+
+    LedgerPartition(int id, LedgerJournal journal, LedgerStore store, TransactionIdAllocator transactionIds,
+                    Map<UUID, LedgerAccount> accounts, Map<UUID, long[]> balances, Function<UUID, LedgerPartition> router,
+                    int ringCapacity, boolean fsync, int persistBatchSize) {
+        this.id = id;
+        this.journal = journal;
+        this.store = store;
+        this.transactionIds = transactionIds;
+        this.accounts = accounts;
+        this.balances = balances;
+        this.router = router;
+        this.fsync = fsync;
+        this.persistBatchSize = persistBatchSize;
+        this.commands = new MpscRingBuffer<>(ringCapacity);
+        this.unpersisted = new ArrayBlockingQueue<>(ringCapacity);
+    }
+
+    void start() {
+        running = true;
+        writer = Thread.ofPlatform().name("ledger-writer-" + id).start(this::write);
+        persister = Thread.ofPlatform().name("ledger-persister-" + id).start(this::persist);
+    }
+
+    /**
+     * Lets the writer finish the queued commands and the persister write everything journaled
+     */
+    void stop() throws InterruptedException {
+        running = false;
+        writer.join();
+        writerDone = true;
+        persister.join();
+    }
+
+    /**
+     * @return true once the writer stopped after a failure, the partition rejects every command from then on
+     */
+    boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * @return false when the command queue is full or the partition stopped
+     */
+    boolean submit(Command command) {
+        if (!running || !commands.offer(command)) {
+            return false;
+        }
+        LockSupport.unpark(writer);
+        return true;
+    }
+
+    private void credit(UUID accountId, long amountCents) {
+        credits.add(new Credit(accountId, amountCents));
+        LockSupport.unpark(writer);
+    }
+
+    private void write() {
+        try {
+            while (running || !commands.isEmpty()) {
+                applyCredits();
+
+                int processed = 0;
+                Command command;
+                while (processed < MAX_COMMANDS_PER_BATCH && (command = commands.poll()) != null) {
+                    execute(command);
+                    processed++;
+                }
+
+                if (!accepted.isEmpty()) {
+                    acknowledge();
+                } else if (processed == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Stops the partition after the writer failed, e.g. when the journal cannot be forced on a full disk.
+     * Waiting transfers get the failure instead of hanging; the ones already appended to the journal
+     * may still be replayed on the next start, so their outcome is unknown to the caller.
+     */
+    private void fail(Throwable failure) {
+        failed = true;
+        running = false;
+        log.error("Ledger partition {} stopped, it rejects transfers until the application restarts", id, failure);
+
+        for (Accepted next : accepted) {
+            next.transfer().result().completeExceptionally(failure);
+        }
+        accepted.clear();
+
+        Command command;
+        while ((command = commands.poll()) != null) {
+            if (command instanceof Transfer transfer) {
+                transfer.result().completeExceptionally(failure);
+            }
+        }
+    }
+
+    private void applyCredits() {
+        Credit credit;
+        while ((credit = credits.poll()) != null) {
+            balances.computeIfAbsent(credit.accountId(), accountId -> new long[1])[0] += credit.amountCents();
+        }
+    }
+
+    private void execute(Command command) {
+        switch (command) {
+            case Register register ->
+                    balances.computeIfAbsent(register.accountId(), accountId -> new long[1])[0] += register.balanceCents();
+            case Transfer transfer -> {
+                try {
+                    accepted.add(new Accepted(transfer, apply(transfer)));
+                } catch (RuntimeException e) {
+                    transfer.result().completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private JournalEntry apply(Transfer transfer) {
+        LedgerAccount fromAccount = accounts.get(transfer.fromAccountId());
+        if (fromAccount == null || !fromAccount.userId().equals(transfer.userId())) {
+            throw new AccountNotFoundException("Source account not found or access denied");
+        }
+
+        LedgerAccount toAccount = accounts.get(transfer.toAccountId());
+        if (toAccount == null) {
+            throw new AccountNotFoundException("Target account not found: " + transfer.toAccountId());
+        }
+
+        if (!fromAccount.accountType().equals(toAccount.accountType())) {
+            throw new CurrencyMismatchException("Cannot transfer between different currency types. Source: " +
+                    fromAccount.accountType() + ", Target: " + toAccount.accountType());
+        }
+
+        long[] fromBalance = balances.computeIfAbsent(transfer.fromAccountId(), accountId -> new long[1]);
+        if (fromBalance[0] < transfer.amountCents()) {
+            throw new InsufficientFundsException("Insufficient balance. Current balance: " + LedgerStore.toAmount(fromBalance[0]));
+        }
+
+        JournalEntry entry = journal.append(transactionIds.next(), transfer.fromAccountId(), transfer.toAccountId(),
+                transfer.amountCents(), LedgerStore.toMicros(LocalDateTime.now()));
+        fromBalance[0] -= transfer.amountCents();
+        if (router.apply(transfer.toAccountId()) == this) {
+            balances.computeIfAbsent(transfer.toAccountId(), accountId -> new long[1])[0] += transfer.amountCents();
+        }
+        return entry;
+    }
+
+    private void acknowledge() {
+        if (fsync) {
+            journal.force();
+        }
+
+        for (Accepted next : accepted) {
+            Transfer transfer = next.transfer();
+            JournalEntry entry = next.entry();
+
+            LedgerPartition target = router.apply(transfer.toAccountId());
+            if (target != this) {
+                target.credit(transfer.toAccountId(), transfer.amountCents());
+            }
+
+            try {
+                unpersisted.put(entry);
+            } catch (InterruptedException e) {
+                // Nothing interrupts the writer, the record is replayed from the journal on the next start if it ever does
+                Thread.currentThread().interrupt();
+            }
+
+            transfer.result().complete(toTransaction(transfer, entry));
+        }
+        accepted.clear();
+    }
+
+    private void persist() {
+        List<JournalEntry> batch = new ArrayList<>(persistBatchSize);
+        while (!writerDone || !unpersisted.isEmpty()) {
+            try {
+                JournalEntry first = unpersisted.poll(PERSIST_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                unpersisted.drainTo(batch, persistBatchSize - 1);
+
+                if (!persistWithRetry(batch)) {
+                    return;
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Retries until the batch is written. During shutdown it gives up instead, leaving this
+     * and every later record to the journal replay of the next start.
+     * @return false when the persister gave up
+     */
+    private boolean persistWithRetry(List<JournalEntry> batch) throws InterruptedException {
+        long lastSequence = batch.get(batch.size() - 1).sequence();
+        while (true) {
+            try {
+                store.persist(id, batch);
+                deleteSegmentsUpTo(lastSequence);
+                return true;
+            } catch (RuntimeException e) {
+                if (writerDone) {
+                    log.error("Ledger partition {} stopped with journal records after {} not persisted, " +
+                            "they are replayed on the next start", id, batch.get(0).sequence() - 1, e);
+                    return false;
+                }
+                log.warn("Ledger partition {} could not persist journal records up to {}, retrying: {}",
+                        id, lastSequence, e.getMessage());
+                Thread.sleep(PERSIST_RETRY_MILLIS);
+            }
+        }
+    }
+
+    private void deleteSegmentsUpTo(long persistedSequence) {
+        try {
+            journal.deleteSegmentsUpTo(persistedSequence);
+        } catch (UncheckedIOException e) {
+            // Leftover segments are skipped by the checkpoint and retried after the next batch
+            log.warn("Ledger partition {} could not delete persisted journal segments: {}", id, e.getMessage());
+        }
+    }
+
+    private static Transaction toTransaction(Transfer transfer, JournalEntry entry) {
+        LocalDateTime createdAt = LedgerStore.toLocalDateTime(entry.createdAtMicros());
+        Transaction transaction = new Transaction(transfer.fromAccountId(), transfer.toAccountId(), transfer.amount());
+        transaction.setId(entry.transactionId());
+        transaction.setCreatedAt(createdAt);
+        transaction.setUpdatedAt(createdAt);
+        return transaction;
+    }
+
+    sealed interface Command permits Transfer, Register {}
+
+    record Transfer(UUID userId, UUID fromAccountId, UUID toAccountId, BigDecimal amount, long amountCents,
+                    CompletableFuture<Transaction> result) implements Command {}
+
+    record Register(UUID accountId, long balanceCents) implements Command {}
+
+    private record Credit(UUID accountId, long amountCents) {}
+
+    private record Accepted(Transfer transfer, JournalEntry entry) {}
+}
@@ -0,0 +1,132 @@
+package com.mini.MiniBankingApp.infrastructure.ledger;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Database side of the ledger engine: loads the starting state, reserves transaction IDs
+ * and writes journal records to the accounts and transactions tables.
+ */
+class LedgerStore {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    LedgerStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    List<AccountRow> loadAccounts() {
+        return jdbcTemplate.query(
+                "SELECT a.id, a.user_id, a.account_type, a.balance + COALESCE((SELECT SUM(s.balance) " +
+                "FROM minibanking_schema.account_balance_shards s WHERE s.account_id = a.id), 0) AS balance " +
+                "FROM minibanking_schema.accounts a",
+                (rs, rowNum) -> new AccountRow(
+                        rs.getObject("id", UUID.class),
+                        rs.getObject("user_id", UUID.class),
+                        rs.getString("account_type"),
+                        rs.getBigDecimal("balance")));
+    }
+
+    /**
+     * @return last persisted journal sequence per partition
+     */
+    Map<Integer, Long> loadCheckpoints() {
+        Map<Integer, Long> checkpoints = new HashMap<>();
+        jdbcTemplate.query("SELECT partition_id, journal_sequence FROM minibanking_schema.ledger_checkpoints",
+                rs -> {
+                    checkpoints.put(rs.getInt("partition_id"), rs.getLong("journal_sequence"));
+                });
+        return checkpoints;
+    }
+
+    /**
+     * Reads the increment of transactions_seq, the number of IDs every nextval reserves.
+     * Hibernate adopts the database increment as well (increment_size_mismatch_strategy: fix),
+     * so both keep reserving the same blocks after ops change it with ALTER SEQUENCE.
+     */
+    long loadTransactionIdBlockSize() {
+        Long increment = jdbcTemplate.queryForObject(
+                "SELECT increment_by FROM pg_sequences " +
+                "WHERE schemaname = 'minibanking_schema' AND sequencename = 'transactions_seq'", Long.class);
+        if (increment == null || increment < 1) {
+            throw new IllegalStateException("transactions_seq must have a positive increment, found " + increment);
+        }
+        return increment;
+    }
+
+    /**
+     * @return first ID of a newly reserved block of transactions_seq
+     */
+    long reserveTransactionIds() {
+        return jdbcTemplate.queryForObject("SELECT nextval('minibanking_schema.transactions_seq')", Long.class);
+    }
+
+    /**
+     * Writes the transactions of the records, applies their balance changes and moves the partition
+     * checkpoint, all in one database transaction
+     */
+    void persist(int partition, List<JournalEntry> entries) {
+        List<Object[]> transactions = new ArrayList<>(entries.size());
+        Map<UUID, Long> balanceChanges = new LinkedHashMap<>();
+        for (JournalEntry entry : entries) {
+            Timestamp createdAt = Timestamp.valueOf(toLocalDateTime(entry.createdAtMicros()));
+            transactions.add(new Object[]{
+                    entry.transactionId(), entry.fromAccountId(), entry.toAccountId(),
+                    toAmount(entry.amountCents()), createdAt, createdAt});
+            balanceChanges.merge(entry.fromAccountId(), -entry.amountCents(), Long::sum);
+            balanceChanges.merge(entry.toAccountId(), entry.amountCents(), Long::sum);
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> accountUpdates = new ArrayList<>(balanceChanges.size());
+        balanceChanges.forEach((accountId, cents) -> accountUpdates.add(new Object[]{toAmount(cents), now, accountId}));
+
+        long lastSequence = entries.get(entries.size() - 1).sequence();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO minibanking_schema.transactions " +
+                    "(id, from_account_id, to_account_id, amount, status, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, ?, 'SUCCESS', ?, ?)",
+                    transactions);
+            // version is bumped so a concurrent JPA update of the account fails instead of overwriting the balance
+            jdbcTemplate.batchUpdate(
+                    "UPDATE minibanking_schema.accounts " +
+                    "SET balance = balance + ?, version = version + 1, updated_at = ? WHERE id = ?",
+                    accountUpdates);
+            jdbcTemplate.update(
+                    "INSERT INTO minibanking_schema.ledger_checkpoints (partition_id, journal_sequence) VALUES (?, ?) " +
+                    "ON CONFLICT (partition_id) DO UPDATE SET journal_sequence = EXCLUDED.journal_sequence",
+                    partition, lastSequence);
+        });
+    }
+
+    static long toMicros(LocalDateTime dateTime) {
+        return ChronoUnit.MICROS.between(EPOCH, dateTime);
+    }
+
+    static LocalDateTime toLocalDateTime(long micros) {
+        return EPOCH.plus(micros, ChronoUnit.MICROS);
+    }
+
+    static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    record AccountRow(UUID id, UUID userId, String accountType, BigDecimal balance) {}
+}
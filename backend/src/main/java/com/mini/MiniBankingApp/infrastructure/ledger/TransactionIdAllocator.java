@@ -0,0 +1,69 @@
+package com.mini.MiniBankingApp.infrastructure.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+
+/**
+ * Hands out transaction IDs to one partition writer from blocks of transactions_seq, the same blocks
+ * Hibernate's pooled-lo optimizer reserves, so engine and JPA inserts never collide.
+ * The next block is reserved in the background once half of the current one is used,
+ * so the writer thread does not wait for the database. Not thread-safe, owned by the writer.
+ */
+@Slf4j
+final class TransactionIdAllocator {
+
+    private final LongSupplier reserveBlock;
+    private final long blockSize;
+    private final Executor executor;
+
+    private long next;
+    private long limit;
+    private CompletableFuture<Long> reserved;
+
+    /**
+     * @param reserveBlock reserves the next block and returns its first ID
+     * @param blockSize IDs in a block, the increment of the sequence
+     */
+    TransactionIdAllocator(LongSupplier reserveBlock, long blockSize, Executor executor) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Transaction ID block size must be at least 1");
+        }
+        this.reserveBlock = reserveBlock;
+        this.blockSize = blockSize;
+        this.executor = executor;
+        this.reserved = reserveAsync();
+    }
+
+    long next() {
+        if (next >= limit) {
+            long blockStart = takeReserved();
+            next = blockStart;
+            limit = blockStart + blockSize;
+        }
+        if (reserved == null && limit - next <= blockSize / 2) {
+            reserved = reserveAsync();
+        }
+        return next++;
+    }
+
+    private long takeReserved() {
+        CompletableFuture<Long> block = reserved;
+        reserved = null;
+        if (block != null) {
+            try {
+                return block.join();
+            } catch (CompletionException e) {
+                log.warn("Could not reserve transaction IDs in the background, retrying: {}", e.getCause().getMessage());
+            }
+        }
+        return reserveBlock.getAsLong();
+    }
+
+    private CompletableFuture<Long> reserveAsync() {
+        return CompletableFuture.supplyAsync(reserveBlock::getAsLong, executor);
+    }
+}
@@ -0,0 +1,69 @@
+package com.mini.MiniBankingApp.infrastructure.metrics;
+
+import com.mini.MiniBankingApp.infrastructure.config.TransferProperties.LockingStrategy;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for the money transfer hot path
+ */
+@Component
+public class TransferMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Timer lockWaitTimer;
+    private final DistributionSummary groupCommitBatchSize;
+    private final Timer groupCommitQueueWait;
+    private final Timer groupCommitDuration;
+
+    public TransferMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.lockWaitTimer = Timer.builder("transfer.lock.wait")
+                .description("Time spent acquiring row locks on transfer accounts")
+                .register(meterRegistry);
+        this.groupCommitBatchSize = DistributionSummary.builder("transfer.group.commit.batch.size")
+                .description("Transfers applied per group commit")
+                .register(meterRegistry);
+        this.groupCommitQueueWait = Timer.builder("transfer.group.commit.queue.wait")
+                .description("Time a transfer waited for its group commit to start")
+                .register(meterRegistry);
+        this.groupCommitDuration = Timer.builder("transfer.group.commit.duration")
+                .description("Time spent applying and committing one group of transfers")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts a transfer attempt that hit a concurrency conflict and is retried
+     */
+    public void recordRetry(LockingStrategy strategy) {
+        meterRegistry.counter("transfer.retries", "strategy", tagValue(strategy)).increment();
+    }
+
+    /**
+     * Counts a transfer that gave up after exhausting its retry budget
+     */
+    public void recordConflict(LockingStrategy strategy) {
+        meterRegistry.counter("transfer.conflicts", "strategy", tagValue(strategy)).increment();
+    }
+
+    public void recordLockWait(long nanos) {
+        lockWaitTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordGroupCommit(int batchSize, long nanos) {
+        groupCommitBatchSize.record(batchSize);
+        groupCommitDuration.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordGroupCommitQueueWait(long nanos) {
+        groupCommitQueueWait.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private String tagValue(LockingStrategy strategy) {
+        return strategy.name().toLowerCase();
+    }
+}
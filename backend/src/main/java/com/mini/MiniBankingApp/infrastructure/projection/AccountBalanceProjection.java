@@ -4,7 +4,8 @@ import java.math.BigDecimal;
 
 /**
  * Spring Data JPA Projection for Account Balance
- * Only fetches balance field from database for performance optimization
+ * Only fetches balance field from database for performance optimization.
+ * The balance is the account total, shard rows of hot accounts included.
  */
 public interface AccountBalanceProjection {
     
@@ -0,0 +1,9 @@
+package com.mini.MiniBankingApp.infrastructure.projection;
+
+import java.util.UUID;
+
+/**
+ * Spring Data JPA DTO projection of an account and its owner, read without loading the entity
+ */
+public record AccountOwner(UUID id, UUID userId) {
+}
@@ -0,0 +1,15 @@
+package com.mini.MiniBankingApp.infrastructure.projection;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Spring Data JPA DTO projection of a user without the password hash
+ * Immutable, so it can be shared from the user lookup cache
+ */
+public record UserSummary(UUID id,
+                          String username,
+                          String email,
+                          LocalDateTime createdAt,
+                          LocalDateTime updatedAt) {
+}
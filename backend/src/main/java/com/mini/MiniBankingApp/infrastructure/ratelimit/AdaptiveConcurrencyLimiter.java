@@ -0,0 +1,112 @@
+package com.mini.MiniBankingApp.infrastructure.ratelimit;
+
+import com.mini.MiniBankingApp.infrastructure.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits how many database bound requests run at once, with a limit that follows observed latency.
+ * It compares each request's latency to a long term average: while requests are as fast as usual the
+ * limit grows by about sqrt(limit), when they slow down because work queues for connections or locks
+ * it shrinks in proportion (gradient algorithm). Server errors cut it by 10% (multiplicative decrease).
+ * Requests over the limit are rejected right away instead of waiting for a connection.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double DROP_DECREASE = 0.9;
+
+    private final ConcurrencyLimitProperties properties;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejectedCounter;
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.estimatedLimit = properties.getInitialLimit();
+        this.limit = properties.getInitialLimit();
+
+        Gauge.builder("concurrency.limit", this, limiter -> limiter.limit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("concurrency.inflight", inFlight, AtomicInteger::get)
+                .description("Requests currently holding a concurrency slot")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("concurrency.rejected")
+                .description("Requests rejected because the concurrency limit was reached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a slot if one is free
+     * @return the number of requests in flight including this one, or zero if rejected
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejectedCounter.increment();
+                return 0;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Frees the slot and feeds the request's latency into the limit
+     * @param inFlightAtStart what tryAcquire returned
+     * @param failed true for server errors, which shrink the limit
+     */
+    public void release(int inFlightAtStart, long latencyNanos, boolean failed) {
+        inFlight.decrementAndGet();
+        if (failed) {
+            onDropped();
+        } else {
+            onSample(inFlightAtStart, latencyNanos);
+        }
+    }
+
+    /**
+     * Frees the slot without a latency sample, for requests that continue asynchronously
+     * or were rejected without doing the work
+     */
+    public void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    private synchronized void onSample(int inFlightAtStart, long latencyNanos) {
+        longRttNanos = longRttNanos == 0
+                ? latencyNanos
+                : longRttNanos + (latencyNanos - longRttNanos) / Math.max(1, properties.getLongWindow());
+
+        // A lightly used limit says nothing about the capacity, do not let it drift upwards
+        if (inFlightAtStart < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT,
+                Math.min(1.0, properties.getRttTolerance() * longRttNanos / Math.max(1, latencyNanos)));
+        double queueSize = Math.sqrt(estimatedLimit);
+        double newLimit = estimatedLimit * gradient + queueSize;
+        updateLimit(estimatedLimit * (1 - properties.getSmoothing()) + newLimit * properties.getSmoothing());
+    }
+
+    private synchronized void onDropped() {
+        updateLimit(estimatedLimit * DROP_DECREASE);
+    }
+
+    private void updateLimit(double newLimit) {
+        estimatedLimit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), newLimit));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,65 @@
+package com.mini.MiniBankingApp.infrastructure.ratelimit;
+
+import com.mini.MiniBankingApp.exception.ServiceOverloadedException;
+import com.mini.MiniBankingApp.infrastructure.config.ConcurrencyLimitProperties;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Holds a slot of the adaptive concurrency limit for the duration of each matching request
+ */
+@Component
+@RequiredArgsConstructor
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String SLOT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".slot";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ConcurrencyLimitProperties properties;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!properties.isEnabled() || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+
+        int inFlightAtStart = limiter.tryAcquire();
+        if (inFlightAtStart == 0) {
+            throw new ServiceOverloadedException("Concurrency limit reached", properties.getRetryAfter());
+        }
+        request.setAttribute(SLOT_ATTRIBUTE, new Slot(inFlightAtStart, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(SLOT_ATTRIBUTE) instanceof Slot slot) {
+            request.removeAttribute(SLOT_ATTRIBUTE);
+            int status = response.getStatus();
+            if (ex != null || (status >= 500 && status != HttpServletResponse.SC_SERVICE_UNAVAILABLE)) {
+                limiter.release(slot.inFlightAtStart(), System.nanoTime() - slot.startedAt(), true);
+            } else if (status >= 200 && status < 300) {
+                limiter.release(slot.inFlightAtStart(), System.nanoTime() - slot.startedAt(), false);
+            } else {
+                // Rejections (4xx, load shedding 503) return fast without doing the work,
+                // as latency samples they would make the system look idle and raise the limit
+                limiter.releaseWithoutSample();
+            }
+        }
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // afterCompletion is not called for the first dispatch of an async request
+        if (request.getAttribute(SLOT_ATTRIBUTE) instanceof Slot) {
+            request.removeAttribute(SLOT_ATTRIBUTE);
+            limiter.releaseWithoutSample();
+        }
+    }
+
+    private record Slot(int inFlightAtStart, long startedAt) {}
+}
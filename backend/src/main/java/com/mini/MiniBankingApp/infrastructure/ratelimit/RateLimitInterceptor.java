@@ -0,0 +1,48 @@
+package com.mini.MiniBankingApp.infrastructure.ratelimit;
+
+import com.mini.MiniBankingApp.infrastructure.config.RateLimitProperties.KeyType;
+import com.mini.MiniBankingApp.infrastructure.security.AuthenticatedUser;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Applies the per user and per path account rate limits before the handler runs.
+ * Account buckets are kept per caller, see RequestRateLimiter.accountKey.
+ * Rejections surface as RateLimitExceededException through GlobalExceptionHandler.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RequestRateLimiter requestRateLimiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The request was already counted on its first dispatch (streamed exports)
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+
+        AuthenticatedUser user = RequestRateLimiter.currentUser();
+        if (user == null) {
+            return true;
+        }
+        requestRateLimiter.check(request, KeyType.USER, user.userId().toString());
+
+        @SuppressWarnings("unchecked")
+        Map<String, String> pathVariables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (pathVariables != null) {
+            requestRateLimiter.check(request, KeyType.ACCOUNT,
+                    RequestRateLimiter.accountKey(user.userId(), pathVariables.get("accountId")));
+        }
+        return true;
+    }
+}
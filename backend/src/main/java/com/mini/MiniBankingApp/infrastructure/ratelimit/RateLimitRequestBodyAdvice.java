@@ -0,0 +1,72 @@
+package com.mini.MiniBankingApp.infrastructure.ratelimit;
+
+import com.mini.MiniBankingApp.application.dto.BatchTransferRequest;
+import com.mini.MiniBankingApp.application.dto.MoneyTransferRequest;
+import com.mini.MiniBankingApp.infrastructure.config.RateLimitProperties.KeyType;
+import com.mini.MiniBankingApp.infrastructure.security.AuthenticatedUser;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies the account rate limits to the source account of a transfer, which is only known once the body is read.
+ * A batch costs one token per transfer: the user buckets are charged for the transfers beyond the one
+ * RateLimitInterceptor already took, and each distinct source account for its own transfers.
+ */
+@ControllerAdvice
+@RequiredArgsConstructor
+public class RateLimitRequestBodyAdvice extends RequestBodyAdviceAdapter {
+
+    private final RequestRateLimiter requestRateLimiter;
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        Class<?> parameterType = methodParameter.getParameterType();
+        return MoneyTransferRequest.class.isAssignableFrom(parameterType)
+                || BatchTransferRequest.class.isAssignableFrom(parameterType);
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter,
+                                Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        AuthenticatedUser user = RequestRateLimiter.currentUser();
+        if (user == null || !(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return body;
+        }
+        HttpServletRequest request = attributes.getRequest();
+
+        if (body instanceof MoneyTransferRequest transfer && transfer.getFromAccountId() != null) {
+            requestRateLimiter.check(request, KeyType.ACCOUNT,
+                    RequestRateLimiter.accountKey(user.userId(), transfer.getFromAccountId().toString()));
+        } else if (body instanceof BatchTransferRequest batch && batch.getTransfers() != null) {
+            checkBatch(request, user, batch);
+        }
+        return body;
+    }
+
+    private void checkBatch(HttpServletRequest request, AuthenticatedUser user, BatchTransferRequest batch) {
+        requestRateLimiter.check(request, KeyType.USER, user.userId().toString(), batch.getTransfers().size() - 1);
+
+        Map<UUID, Long> transfersPerSource = batch.getTransfers().stream()
+                .filter(Objects::nonNull)
+                .map(MoneyTransferRequest::getFromAccountId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        transfersPerSource.forEach((accountId, count) -> requestRateLimiter.check(request, KeyType.ACCOUNT,
+                RequestRateLimiter.accountKey(user.userId(), accountId.toString()), count.intValue()));
+    }
+}
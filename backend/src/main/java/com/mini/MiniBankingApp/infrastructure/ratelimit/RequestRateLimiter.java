@@ -0,0 +1,161 @@
+package com.mini.MiniBankingApp.infrastructure.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mini.MiniBankingApp.exception.RateLimitExceededException;
+import com.mini.MiniBankingApp.infrastructure.config.RateLimitProperties;
+import com.mini.MiniBankingApp.infrastructure.config.RateLimitProperties.KeyType;
+import com.mini.MiniBankingApp.infrastructure.security.AuthenticatedUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets per rule and key, implemented with the generic cell rate algorithm (GCRA).
+ * A bucket is a single AtomicLong holding the theoretical arrival time of the next request,
+ * so a check is one map lookup and one compare-and-set, without locks.
+ * Idle buckets are evicted after rate-limit.idle-timeout.
+ */
+@Component
+public class RequestRateLimiter {
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final List<CompiledRule> rules;
+    private final Cache<String, AtomicLong> buckets;
+
+    public RequestRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.rules = properties.getRules().stream()
+                .map(CompiledRule::of)
+                .toList();
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(properties.getIdleTimeout())
+                .maximumSize(properties.getMaximumKeys())
+                .build();
+    }
+
+    /**
+     * Takes one token from every rule of the given key type that matches the request
+     * @throws RateLimitExceededException if any of those buckets is empty
+     */
+    public void check(HttpServletRequest request, KeyType keyType, String keyValue) {
+        check(request, keyType, keyValue, 1);
+    }
+
+    /**
+     * Takes the given number of tokens at once from every matching rule, all or none of them per bucket
+     * @throws RateLimitExceededException if any of those buckets holds fewer tokens
+     * @throws IllegalArgumentException if a matching rule could never grant that many tokens at once
+     */
+    public void check(HttpServletRequest request, KeyType keyType, String keyValue, int permits) {
+        if (!properties.isEnabled() || keyValue == null || permits < 1 || rules.isEmpty()) {
+            return;
+        }
+
+        PathContainer path = null;
+        for (CompiledRule rule : rules) {
+            if (rule.keyType() != keyType || !rule.matchesMethod(request.getMethod())) {
+                continue;
+            }
+            if (path == null) {
+                path = requestPath(request);
+            }
+            if (!rule.pattern().matches(path)) {
+                continue;
+            }
+
+            if (permits > rule.capacity()) {
+                // Waiting would not help, a full bucket still holds fewer tokens
+                meterRegistry.counter("rate.limit.rejected", "rule", rule.name()).increment();
+                throw new IllegalArgumentException("Request counts as " + permits + " requests for rate limit " +
+                        rule.name() + ", which allows at most " + rule.capacity() + " at once");
+            }
+            long waitNanos = tryAcquire(rule, keyValue, permits);
+            if (waitNanos > 0) {
+                meterRegistry.counter("rate.limit.rejected", "rule", rule.name()).increment();
+                throw new RateLimitExceededException("Rate limit exceeded for " + rule.name(),
+                        Duration.ofNanos(waitNanos));
+            }
+        }
+    }
+
+    /**
+     * Account buckets are kept per caller and account. Keyed by the account alone, requests naming
+     * an account the caller does not own would drain the owner's bucket before the ownership check rejects them.
+     */
+    public static String accountKey(UUID userId, String accountId) {
+        return accountId == null ? null : userId + ":" + accountId;
+    }
+
+    /**
+     * @return the authenticated caller, or null for anonymous requests
+     */
+    static AuthenticatedUser currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user ? user : null;
+    }
+
+    /**
+     * @return zero when the request is allowed, otherwise how long until it would be
+     */
+    private long tryAcquire(CompiledRule rule, String keyValue, int permits) {
+        AtomicLong theoreticalArrival = buckets.get(rule.name() + ':' + keyValue, key -> new AtomicLong(System.nanoTime()));
+        long now = System.nanoTime();
+        long cost = rule.intervalNanos() * permits;
+
+        while (true) {
+            long current = theoreticalArrival.get();
+            // nanoTime may wrap, so compare by difference
+            long base = current - now > 0 ? current : now;
+            long ahead = base - now + cost - rule.intervalNanos();
+            if (ahead > rule.toleranceNanos()) {
+                return ahead - rule.toleranceNanos();
+            }
+            if (theoreticalArrival.compareAndSet(current, base + cost)) {
+                return 0;
+            }
+        }
+    }
+
+    private PathContainer requestPath(HttpServletRequest request) {
+        if (ServletRequestPathUtils.hasParsedRequestPath(request)) {
+            return ServletRequestPathUtils.getParsedRequestPath(request).pathWithinApplication();
+        }
+        return PathContainer.parsePath(request.getRequestURI());
+    }
+
+    /**
+     * A rule with its path pattern parsed and its rate turned into GCRA timings
+     */
+    private record CompiledRule(String name, String method, PathPattern pattern, KeyType keyType,
+                                int capacity, long intervalNanos, long toleranceNanos) {
+
+        static CompiledRule of(RateLimitProperties.Rule rule) {
+            if (rule.getCapacity() < 1) {
+                throw new IllegalArgumentException("Rate limit rule " + rule.getName() + " needs a capacity of at least 1");
+            }
+            long intervalNanos = Math.max(1, rule.getPeriod().toNanos() / rule.getCapacity());
+            String method = rule.getMethod() == null || rule.getMethod().isBlank() ? null : rule.getMethod().trim();
+            return new CompiledRule(rule.getName(), method,
+                    PathPatternParser.defaultInstance.parse(rule.getPath()), rule.getKey(),
+                    rule.getCapacity(), intervalNanos, intervalNanos * (rule.getCapacity() - 1));
+        }
+
+        boolean matchesMethod(String requestMethod) {
+            return method == null || method.equalsIgnoreCase(requestMethod);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.mini.MiniBankingApp.infrastructure.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Shard rows of hot account balances over JDBC. Rows are created by the first credit to a shard
+ * and only ever hold non-negative amounts; debits always go to the accounts row.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AccountBalanceShardRepository {
+
+    private static final String UPSERT_CONFLICT =
+            " ON CONFLICT (account_id, shard_no) DO UPDATE " +
+            "SET balance = minibanking_schema.account_balance_shards.balance + EXCLUDED.balance";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void credit(UUID accountId, int shard, BigDecimal amount) {
+        jdbcTemplate.update(
+                "INSERT INTO minibanking_schema.account_balance_shards (account_id, shard_no, balance) " +
+                "VALUES (?, ?, ?)" + UPSERT_CONFLICT,
+                accountId, shard, amount);
+    }
+
+    /**
+     * Credits the shard, guarded by the account existing and having the currency type of the source account
+     * @return number of credited rows, zero when the guard rejected the credit
+     */
+    public int creditIfSameCurrency(UUID accountId, UUID sourceAccountId, int shard, BigDecimal amount) {
+        return jdbcTemplate.update(
+                "INSERT INTO minibanking_schema.account_balance_shards (account_id, shard_no, balance) " +
+                "SELECT t.id, ?, ? FROM minibanking_schema.accounts t " +
+                "JOIN minibanking_schema.accounts s ON s.id = ? AND s.account_type = t.account_type " +
+                "WHERE t.id = ?" + UPSERT_CONFLICT,
+                shard, amount, sourceAccountId, accountId);
+    }
+
+    /**
+     * Empties the shards of the account, the caller adds the result to the accounts row in the same transaction
+     * @return total taken out of the shards
+     */
+    @Transactional
+    public BigDecimal sweep(UUID accountId) {
+        if (!lockAccount(accountId)) {
+            return BigDecimal.ZERO;
+        }
+        return jdbcTemplate.queryForObject(
+                "WITH cleared AS (" +
+                "  UPDATE minibanking_schema.account_balance_shards s SET balance = 0 " +
+                "  FROM (SELECT shard_no, balance FROM minibanking_schema.account_balance_shards " +
+                "        WHERE account_id = ? AND balance <> 0 FOR UPDATE) old " +
+                "  WHERE s.account_id = ? AND s.shard_no = old.shard_no RETURNING old.balance) " +
+                "SELECT COALESCE(SUM(balance), 0) FROM cleared",
+                BigDecimal.class, accountId, accountId);
+    }
+
+    /**
+     * Empties the shards of the account into its accounts row
+     * @return number of updated accounts, zero when the shards were empty or the account is gone
+     */
+    @Transactional
+    public int sweepIntoAccount(UUID accountId, LocalDateTime now) {
+        if (!lockAccount(accountId)) {
+            return 0;
+        }
+        return jdbcTemplate.update(
+                "WITH cleared AS (" +
+                "  UPDATE minibanking_schema.account_balance_shards s SET balance = 0 " +
+                "  FROM (SELECT shard_no, balance FROM minibanking_schema.account_balance_shards " +
+                "        WHERE account_id = ? AND balance <> 0 FOR UPDATE) old " +
+                "  WHERE s.account_id = ? AND s.shard_no = old.shard_no RETURNING old.balance) " +
+                "UPDATE minibanking_schema.accounts " +
+                "SET balance = balance + (SELECT SUM(balance) FROM cleared), version = version + 1, updated_at = ? " +
+                "WHERE id = ? AND EXISTS (SELECT 1 FROM cleared)",
+                accountId, accountId, now, accountId);
+    }
+
+    /**
+     * Locks the accounts row before any shard row. Transfers lock the accounts row first and sweep after,
+     * so a sweep taking the shards first would deadlock with them.
+     * @return false when the account is gone
+     */
+    private boolean lockAccount(UUID accountId) {
+        return !jdbcTemplate.queryForList(
+                "SELECT id FROM minibanking_schema.accounts WHERE id = ? FOR UPDATE", UUID.class, accountId).isEmpty();
+    }
+
+    public BigDecimal sumBalance(UUID accountId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(balance), 0) FROM minibanking_schema.account_balance_shards WHERE account_id = ?",
+                BigDecimal.class, accountId);
+    }
+
+    public List<UUID> findAccountIdsWithBalance() {
+        return jdbcTemplate.queryForList(
+                "SELECT DISTINCT account_id FROM minibanking_schema.account_balance_shards WHERE balance <> 0",
+                UUID.class);
+    }
+
+    public void deleteByAccountId(UUID accountId) {
+        jdbcTemplate.update("DELETE FROM minibanking_schema.account_balance_shards WHERE account_id = ?", accountId);
+    }
+}
@@ -2,11 +2,18 @@ package com.mini.MiniBankingApp.infrastructure.repository;
 
 import com.mini.MiniBankingApp.domain.account.Account;
 import com.mini.MiniBankingApp.infrastructure.projection.AccountBalanceProjection;
+import com.mini.MiniBankingApp.infrastructure.projection.AccountOwner;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -19,9 +26,13 @@ public interface AccountRepository extends JpaRepository<Account, UUID> {
     
     /**
      * Finds account balance projection by account ID
-     * Spring Data JPA automatically generates query to fetch only balance field
+     * Fetches only the balance, including what hot account shards hold
      */
-    Optional<AccountBalanceProjection> findProjectedById(UUID accountId);
+    @Query(value = "SELECT a.balance + COALESCE((SELECT SUM(s.balance) FROM minibanking_schema.account_balance_shards s " +
+                   "WHERE s.account_id = a.id), 0) AS balance " +
+                   "FROM minibanking_schema.accounts a WHERE a.id = :accountId",
+           nativeQuery = true)
+    Optional<AccountBalanceProjection> findProjectedById(@Param("accountId") UUID accountId);
     
     @Query("SELECT a FROM Account a WHERE a.userId = :userId AND " +
            "(:number IS NULL OR :number = '' OR UPPER(a.number) LIKE UPPER(CONCAT('%', :number, '%'))) AND " +
@@ -31,4 +42,51 @@ public interface AccountRepository extends JpaRepository<Account, UUID> {
                                 @Param("name") String name);
     
     Optional<Account> findByIdAndUserId(UUID id, UUID userId);
+    
+    boolean existsByIdAndUserId(UUID id, UUID userId);
+
+    /**
+     * Reads the owners of the given accounts without loading or locking them
+     */
+    @Query("SELECT new com.mini.MiniBankingApp.infrastructure.projection.AccountOwner(a.id, a.userId) " +
+           "FROM Account a WHERE a.id IN :ids")
+    List<AccountOwner> findOwnersByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Locks the given accounts with SELECT ... FOR UPDATE.
+     * Rows are locked in ID order so concurrent transfers between the same accounts
+     * always acquire their locks in the same sequence and cannot deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.id IN :ids ORDER BY a.id")
+    List<Account> findAllByIdForUpdate(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Debits the account in a single statement, guarded by ownership and available balance.
+     * @return number of updated rows, zero when the guard rejected the debit
+     */
+    @Modifying
+    @Query(value = "UPDATE minibanking_schema.accounts " +
+                   "SET balance = balance - :amount, version = version + 1, updated_at = :now " +
+                   "WHERE id = :id AND user_id = :userId AND balance >= :amount",
+           nativeQuery = true)
+    int debitIfSufficient(@Param("id") UUID id,
+                          @Param("userId") UUID userId,
+                          @Param("amount") BigDecimal amount,
+                          @Param("now") LocalDateTime now);
+
+    /**
+     * Credits the account in a single statement, guarded by the source account having the same currency type.
+     * @return number of updated rows, zero when the account is missing or the currencies differ
+     */
+    @Modifying
+    @Query(value = "UPDATE minibanking_schema.accounts " +
+                   "SET balance = balance + :amount, version = version + 1, updated_at = :now " +
+                   "WHERE id = :id AND account_type = " +
+                   "(SELECT s.account_type FROM minibanking_schema.accounts s WHERE s.id = :sourceId)",
+           nativeQuery = true)
+    int creditIfSameCurrency(@Param("id") UUID id,
+                             @Param("sourceId") UUID sourceId,
+                             @Param("amount") BigDecimal amount,
+                             @Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -7,23 +7,62 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
     
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
     
-    Optional<RefreshToken> findByUserAndRevokedFalse(User user);
+    /**
+     * Loads the token together with its user in one query
+     */
+    @Query("SELECT rt FROM RefreshToken rt JOIN FETCH rt.user WHERE rt.tokenHash = :tokenHash")
+    Optional<RefreshToken> findWithUserByTokenHash(@Param("tokenHash") String tokenHash);
     
-    @Modifying
-    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.user = :user")
-    void revokeAllByUser(@Param("user") User user);
+    Optional<RefreshToken> findByUserAndRevokedFalse(User user);
     
     void deleteByUser(User user);
     
+    /**
+     * Locks the row of the user until the transaction ends. Two logins of the same user would otherwise
+     * both replace the tokens they see and each leave its own token active, since neither sees the other's insert.
+     * NO KEY UPDATE still lets foreign key checks on the user go through.
+     */
+    @Query(value = "SELECT id FROM minibanking_schema.users WHERE id = :userId FOR NO KEY UPDATE", nativeQuery = true)
+    Optional<UUID> lockUser(@Param("userId") UUID userId);
+    
+    /**
+     * Revokes the active tokens of the user and inserts the new one in a single statement.
+     * The UPDATE works on the snapshot taken before the INSERT, so the new token stays active.
+     * Call lockUser first in the same transaction.
+     */
+    @Modifying
+    @Query(value = "WITH revoked AS (" +
+                   "UPDATE minibanking_schema.refresh_tokens SET is_revoked = true, updated_at = :now " +
+                   "WHERE user_id = :userId AND NOT is_revoked) " +
+                   "INSERT INTO minibanking_schema.refresh_tokens " +
+                   "(id, token_hash, user_id, expires_at, is_revoked, created_at, updated_at) " +
+                   "VALUES (nextval('minibanking_schema.refresh_tokens_seq'), :tokenHash, :userId, :expiresAt, false, :now, :now)",
+           nativeQuery = true)
+    int replaceActiveToken(@Param("userId") UUID userId,
+                           @Param("tokenHash") String tokenHash,
+                           @Param("expiresAt") LocalDateTime expiresAt,
+                           @Param("now") LocalDateTime now);
+    
+    /**
+     * Deletes up to batchSize expired or revoked tokens in its own transaction, so row locks stay short
+     * @return number of deleted rows
+     */
+    @Transactional
     @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.expiresAt < CURRENT_TIMESTAMP")
-    void deleteExpiredTokens();
-}
\ No newline at end of file
+    @Query(value = "DELETE FROM minibanking_schema.refresh_tokens WHERE id IN (" +
+                   "SELECT id FROM minibanking_schema.refresh_tokens " +
+                   "WHERE expires_at < :now OR is_revoked LIMIT :batchSize)",
+           nativeQuery = true)
+    int deleteExpiredOrRevokedBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+}
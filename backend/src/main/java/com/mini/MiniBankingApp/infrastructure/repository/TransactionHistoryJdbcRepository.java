@@ -0,0 +1,186 @@
+package com.mini.MiniBankingApp.infrastructure.repository;
+
+import com.mini.MiniBankingApp.application.dto.TransactionHistoryResponse;
+import com.mini.MiniBankingApp.domain.transaction.TransactionStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Reads an account's transaction history straight into response rows over JDBC,
+ * without managed entities. Transaction type and other party are computed by the query.
+ * <p>
+ * Outgoing and incoming transactions are read as two index-ordered branches combined with UNION ALL,
+ * one per (account, created_at DESC, id DESC) index. Paged reads limit each branch to the rows the
+ * page needs, so the combined result is sorted over at most twice the page size. The incoming branch
+ * skips rows where the account is also the sender, which only failed same-account attempts have,
+ * so nothing is returned twice.
+ * <p>
+ * transactions is range partitioned by created_at month. Every created_at bound is a plain
+ * comparison on the column so PostgreSQL can prune the partitions outside of it.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionHistoryJdbcRepository {
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private static final String COLUMNS = "t.id, t.from_account_id, t.to_account_id, t.amount, t.status, t.created_at";
+    private static final String BRANCH_ORDER = " ORDER BY t.created_at DESC, t.id DESC";
+    private static final String HISTORY_ORDER = " ORDER BY created_at DESC, id DESC";
+
+    private static final RowMapper<TransactionHistoryResponse> ROW_MAPPER = (resultSet, rowNum) -> mapRow(resultSet);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Whole history of the account, newest first
+     */
+    public List<TransactionHistoryResponse> findHistory(UUID accountId) {
+        HistoryQuery query = history(accountId, Filter.NONE, null);
+        return jdbcTemplate.query(query.sql(), ROW_MAPPER, query.params().toArray());
+    }
+
+    /**
+     * Offset page of the history, newest first
+     */
+    public List<TransactionHistoryResponse> findHistoryPage(UUID accountId, int limit, long offset) {
+        HistoryQuery query = history(accountId, Filter.NONE, limit + offset);
+        List<Object> params = new ArrayList<>(query.params());
+        params.add(limit);
+        params.add(offset);
+        return jdbcTemplate.query(query.sql() + " LIMIT ? OFFSET ?", ROW_MAPPER, params.toArray());
+    }
+
+    /**
+     * Keyset page of the history, newest first
+     * @param createdAt created_at of the last row of the previous page, null for the first page
+     * @param id id of the last row of the previous page, null for the first page
+     * @param from inclusive lower bound of created_at, null for no bound
+     * @param to exclusive upper bound of created_at, null for no bound
+     */
+    public List<TransactionHistoryResponse> findHistoryPageBefore(UUID accountId, LocalDateTime createdAt, Long id,
+                                                                  LocalDateTime from, LocalDateTime to, int limit) {
+        Filter filter = Filter.range(from, to);
+        if (createdAt != null) {
+            // The row comparison alone does not prune, the plain created_at bound does
+            filter = filter.and(" AND t.created_at <= ? AND (t.created_at, t.id) < (?, ?)", createdAt, createdAt, id);
+        }
+
+        HistoryQuery query = history(accountId, filter, (long) limit);
+        List<Object> params = new ArrayList<>(query.params());
+        params.add(limit);
+        return jdbcTemplate.query(query.sql() + " LIMIT ?", ROW_MAPPER, params.toArray());
+    }
+
+    public long countHistory(UUID accountId) {
+        String sql = "SELECT (SELECT count(*) FROM minibanking_schema.transactions t WHERE t.from_account_id = ?) + " +
+                     "(SELECT count(*) FROM minibanking_schema.transactions t " +
+                     "WHERE t.to_account_id = ? AND t.from_account_id <> ?)";
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, accountId, accountId, accountId);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Streams the history, newest first, to the consumer one row at a time.
+     * Must run inside a transaction: PostgreSQL only honours the fetch size with auto-commit off,
+     * otherwise the driver buffers the whole result.
+     * @param from inclusive lower bound of created_at, null for no bound
+     * @param to exclusive upper bound of created_at, null for no bound
+     */
+    public void streamHistory(UUID accountId, LocalDateTime from, LocalDateTime to,
+                              Consumer<TransactionHistoryResponse> consumer) {
+        HistoryQuery query = history(accountId, Filter.range(from, to), null);
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(query.sql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            for (int i = 0; i < query.params().size(); i++) {
+                statement.setObject(i + 1, query.params().get(i));
+            }
+            return statement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(mapRow(resultSet)));
+    }
+
+    /**
+     * UNION ALL of both branches with the filter applied to each, ordered newest first
+     * @param branchLimit rows read from each branch at most, null for no limit
+     */
+    private static HistoryQuery history(UUID accountId, Filter filter, Long branchLimit) {
+        String branchTail = branchLimit != null ? BRANCH_ORDER + " LIMIT ?" : "";
+        String outgoing = "SELECT " + COLUMNS + ", 'OUTGOING' AS transaction_type, t.to_account_id AS other_account_id " +
+                          "FROM minibanking_schema.transactions t WHERE t.from_account_id = ?" + filter.sql() + branchTail;
+        String incoming = "SELECT " + COLUMNS + ", 'INCOMING', t.from_account_id " +
+                          "FROM minibanking_schema.transactions t WHERE t.to_account_id = ? AND t.from_account_id <> ?" +
+                          filter.sql() + branchTail;
+
+        List<Object> params = new ArrayList<>();
+        params.add(accountId);
+        params.addAll(filter.params());
+        if (branchLimit != null) {
+            params.add(branchLimit);
+        }
+        params.add(accountId);
+        params.add(accountId);
+        params.addAll(filter.params());
+        if (branchLimit != null) {
+            params.add(branchLimit);
+        }
+
+        String union = branchLimit != null
+                ? "(" + outgoing + ") UNION ALL (" + incoming + ")"
+                : outgoing + " UNION ALL " + incoming;
+        return new HistoryQuery(union + HISTORY_ORDER, params);
+    }
+
+    private static TransactionHistoryResponse mapRow(ResultSet resultSet) throws SQLException {
+        TransactionHistoryResponse row = new TransactionHistoryResponse();
+        row.setId(resultSet.getLong("id"));
+        row.setFromAccountId(resultSet.getObject("from_account_id", UUID.class));
+        row.setToAccountId(resultSet.getObject("to_account_id", UUID.class));
+        row.setAmount(resultSet.getBigDecimal("amount"));
+        row.setStatus(TransactionStatus.valueOf(resultSet.getString("status")));
+        row.setTransactionDate(resultSet.getObject("created_at", LocalDateTime.class));
+        row.setTransactionType(resultSet.getString("transaction_type"));
+        row.setOtherAccountId(resultSet.getObject("other_account_id", UUID.class));
+        return row;
+    }
+
+    private record HistoryQuery(String sql, List<Object> params) {}
+
+    /**
+     * Extra conditions applied to both branches, appended after the account predicate
+     */
+    private record Filter(String sql, List<Object> params) {
+
+        static final Filter NONE = new Filter("", List.of());
+
+        static Filter range(LocalDateTime from, LocalDateTime to) {
+            Filter filter = NONE;
+            if (from != null) {
+                filter = filter.and(" AND t.created_at >= ?", from);
+            }
+            if (to != null) {
+                filter = filter.and(" AND t.created_at < ?", to);
+            }
+            return filter;
+        }
+
+        Filter and(String condition, Object... values) {
+            List<Object> combined = new ArrayList<>(params);
+            combined.addAll(List.of(values));
+            return new Filter(sql + condition, combined);
+        }
+    }
+}
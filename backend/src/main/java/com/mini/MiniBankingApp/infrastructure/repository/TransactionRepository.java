@@ -2,12 +2,12 @@ package com.mini.MiniBankingApp.infrastructure.repository;
 
 import com.mini.MiniBankingApp.domain.transaction.Transaction;
 import com.mini.MiniBankingApp.domain.transaction.TransactionStatus;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -19,11 +19,33 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     List<Transaction> findByToAccountIdOrderByCreatedAtDesc(UUID toAccountId);
     List<Transaction> findByStatus(TransactionStatus status);
     
-    @Query("SELECT t FROM Transaction t WHERE (t.fromAccountId = :accountId OR t.toAccountId = :accountId) ORDER BY t.createdAt DESC")
-    List<Transaction> findByAccountIdOrderByCreatedAtDesc(@Param("accountId") UUID accountId);
-    
-    @Query("SELECT t FROM Transaction t WHERE (t.fromAccountId = :accountId OR t.toAccountId = :accountId) ORDER BY t.createdAt DESC")
-    Page<Transaction> findByAccountIdOrderByCreatedAtDesc(@Param("accountId") UUID accountId, Pageable pageable);
-    
     List<Transaction> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
-}
\ No newline at end of file
+    
+    /**
+     * Moves a pending transfer to its final status. Only one caller can win, so a pending transfer
+     * picked up twice is still executed once.
+     * @return number of updated rows, zero when the transfer is no longer pending
+     */
+    @Modifying
+    @Query(value = "UPDATE minibanking_schema.transactions SET status = :status, updated_at = :now " +
+                   "WHERE id = :id AND status = 'PENDING'",
+           nativeQuery = true)
+    int completePending(@Param("id") Long id, @Param("status") String status, @Param("now") LocalDateTime now);
+
+    /**
+     * Claims up to limit pending transfers untouched since the cutoff, oldest ID first, in its own transaction.
+     * Claiming sets updated_at, so other instances skip the rows until the cutoff passes them again;
+     * SKIP LOCKED lets instances claiming at the same time take disjoint rows.
+     * Reads through the partial index of pending transfers.
+     */
+    @Transactional
+    @Query(value = "UPDATE minibanking_schema.transactions SET updated_at = :now " +
+                   "WHERE status = 'PENDING' AND id IN (" +
+                   "SELECT id FROM minibanking_schema.transactions " +
+                   "WHERE status = 'PENDING' AND updated_at < :cutoff " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+                   "RETURNING *",
+           nativeQuery = true)
+    List<Transaction> claimStalePending(@Param("cutoff") LocalDateTime cutoff, @Param("now") LocalDateTime now,
+                                        @Param("limit") int limit);
+}
@@ -0,0 +1,95 @@
+package com.mini.MiniBankingApp.infrastructure.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Transfer idempotency keys over JDBC. Every statement commits on its own, a key is claimed
+ * before the transfer runs and completed or released after it.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransferIdempotencyKeyRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Claims the key for a new request, taking over a row that has expired but is not purged yet
+     * @return false when another request holds the key
+     */
+    public boolean tryClaim(UUID userId, String key, String requestHash, LocalDateTime now, LocalDateTime expiresAt) {
+        return jdbcTemplate.update(
+                "INSERT INTO minibanking_schema.transfer_idempotency_keys " +
+                "(user_id, idempotency_key, request_hash, response, created_at, expires_at) " +
+                "VALUES (?, ?, ?, NULL, ?, ?) " +
+                "ON CONFLICT (user_id, idempotency_key) DO UPDATE " +
+                "SET request_hash = EXCLUDED.request_hash, response = NULL, failed = false, " +
+                "created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at " +
+                "WHERE minibanking_schema.transfer_idempotency_keys.expires_at < EXCLUDED.created_at",
+                userId, key, requestHash, now, expiresAt) > 0;
+    }
+
+    /**
+     * @return the unexpired key, its response is null while the first request is still running or after it failed
+     */
+    public Optional<StoredKey> find(UUID userId, String key, LocalDateTime now) {
+        return jdbcTemplate.query(
+                "SELECT request_hash, response, failed FROM minibanking_schema.transfer_idempotency_keys " +
+                "WHERE user_id = ? AND idempotency_key = ? AND expires_at >= ?",
+                (resultSet, rowNum) -> new StoredKey(resultSet.getString("request_hash"), resultSet.getString("response"),
+                        resultSet.getBoolean("failed")),
+                userId, key, now)
+                .stream()
+                .findFirst();
+    }
+
+    public void complete(UUID userId, String key, String response) {
+        jdbcTemplate.update(
+                "UPDATE minibanking_schema.transfer_idempotency_keys SET response = ? " +
+                "WHERE user_id = ? AND idempotency_key = ?",
+                response, userId, key);
+    }
+
+    /**
+     * Marks a claim whose transfer has an unknown outcome as failed, retries with the key are refused until it expires
+     */
+    public void fail(UUID userId, String key) {
+        jdbcTemplate.update(
+                "UPDATE minibanking_schema.transfer_idempotency_keys SET failed = true " +
+                "WHERE user_id = ? AND idempotency_key = ? AND response IS NULL",
+                userId, key);
+    }
+
+    /**
+     * Drops a claim whose request was rejected before it changed anything, so the client can retry it
+     */
+    public void release(UUID userId, String key) {
+        jdbcTemplate.update(
+                "DELETE FROM minibanking_schema.transfer_idempotency_keys " +
+                "WHERE user_id = ? AND idempotency_key = ? AND response IS NULL",
+                userId, key);
+    }
+
+    /**
+     * Deletes up to batchSize expired keys
+     * @return number of deleted keys
+     */
+    public int deleteExpiredBatch(LocalDateTime now, int batchSize) {
+        return jdbcTemplate.update(
+                "DELETE FROM minibanking_schema.transfer_idempotency_keys WHERE (user_id, idempotency_key) IN (" +
+                "SELECT user_id, idempotency_key FROM minibanking_schema.transfer_idempotency_keys " +
+                "WHERE expires_at < ? LIMIT ?)",
+                now, batchSize);
+    }
+
+    /**
+     * @param response serialized response, null while the request is in progress or failed
+     * @param failed the transfer of the first request has an unknown outcome
+     */
+    public record StoredKey(String requestHash, String response, boolean failed) {}
+}
@@ -0,0 +1,57 @@
+package com.mini.MiniBankingApp.infrastructure.scheduling;
+
+import com.mini.MiniBankingApp.infrastructure.repository.AccountBalanceShardRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Folds the shard balances of hot accounts back into their accounts row, so debits rarely need to sweep.
+ * Also picks up accounts that are no longer configured as hot but still have money in shards.
+ * Each account is swept in a transaction of its own that locks the accounts row before the shards,
+ * in the order transfers take them. Runs on several nodes serialize on that row, the later one finds
+ * the shards empty. A failed account, e.g. a deadlock victim, is skipped until the next schedule.
+ */
+@Component
+@ConditionalOnProperty(prefix = "hot-accounts", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class HotAccountConsolidationJob {
+
+    private final AccountBalanceShardRepository shardRepository;
+
+    @Scheduled(cron = "${hot-accounts.consolidation-cron:*/30 * * * * *}")
+    public void consolidate() {
+        List<UUID> accountIds;
+        try {
+            accountIds = shardRepository.findAccountIdsWithBalance();
+        } catch (DataAccessException e) {
+            log.error("Hot account consolidation could not list accounts with shard balances: {}", e.getMessage());
+            return;
+        }
+
+        int consolidated = 0;
+        int failed = 0;
+        for (UUID accountId : accountIds) {
+            try {
+                consolidated += shardRepository.sweepIntoAccount(accountId, LocalDateTime.now());
+            } catch (DataAccessException e) {
+                // The shards of this account are picked up on the next schedule
+                failed++;
+                log.warn("Hot account consolidation failed for account {}: {}", accountId, e.getMessage());
+            }
+        }
+        if (failed > 0) {
+            log.error("Hot account consolidation done with failures. Accounts: {}, failed: {}", consolidated, failed);
+        } else {
+            log.debug("Hot account consolidation done. Accounts: {}", consolidated);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.mini.MiniBankingApp.infrastructure.scheduling;
+
+import com.mini.MiniBankingApp.infrastructure.config.JwtProperties;
+import com.mini.MiniBankingApp.infrastructure.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Deletes expired and revoked refresh tokens so the table does not grow without bound.
+ * Each batch is its own short transaction; running it on several nodes at once only splits the work.
+ */
+@Component
+@ConditionalOnProperty(prefix = "jwt.refresh.purge", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenPurgeJob {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtProperties jwtProperties;
+
+    @Scheduled(cron = "${jwt.refresh.purge.cron:0 */15 * * * *}")
+    public void purgeTokens() {
+        int batchSize = Math.max(1, jwtProperties.getRefresh().getPurge().getBatchSize());
+        LocalDateTime now = LocalDateTime.now();
+        long purged = 0;
+
+        try {
+            int deleted;
+            do {
+                deleted = refreshTokenRepository.deleteExpiredOrRevokedBatch(now, batchSize);
+                purged += deleted;
+            } while (deleted == batchSize);
+
+            log.info("Refresh token purge done. Deleted: {}", purged);
+        } catch (DataAccessException e) {
+            // Whatever is left is picked up on the next schedule
+            log.error("Refresh token purge failed after deleting {} tokens: {}", purged, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.mini.MiniBankingApp.infrastructure.scheduling;
+
+import com.mini.MiniBankingApp.infrastructure.config.TransactionPartitionProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the monthly partitions of transactions ahead of time and archives the ones past retention.
+ * The work is done by SQL functions from the partitioning migration; they take an advisory lock,
+ * so running this on every node is safe. Rows that landed in the default partition because their month
+ * had no partition yet are moved into it once it is created.
+ */
+@Component
+@ConditionalOnProperty(prefix = "transaction-partitioning", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionPartitionMaintenanceJob {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionPartitionProperties properties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        maintainPartitions();
+    }
+
+    @Scheduled(cron = "${transaction-partitioning.maintenance-cron:0 0 3 * * *}")
+    public void maintainPartitions() {
+        try {
+            // Starts at the oldest month in the default partition, so a missed month gets its partition
+            // and its rows are moved out of the default partition
+            Integer created = jdbcTemplate.queryForObject(
+                    "SELECT minibanking_schema.ensure_transaction_partitions(LEAST(current_date, " +
+                    "(SELECT min(created_at)::date FROM minibanking_schema.transactions_default)), ?)",
+                    Integer.class, properties.getMonthsAhead());
+
+            Integer archived = 0;
+            if (properties.getRetentionMonths() > 0) {
+                archived = jdbcTemplate.queryForObject(
+                        "SELECT minibanking_schema.archive_transaction_partitions(?, ?)",
+                        Integer.class, properties.getRetentionMonths(), properties.getArchiveSchema());
+            }
+
+            log.info("Transaction partition maintenance done. Created: {}, Archived: {}", created, archived);
+
+            Long stranded = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM minibanking_schema.transactions_default", Long.class);
+            if (stranded != null && stranded > 0) {
+                log.warn("{} transactions are dated beyond the monthly partitions and stay in transactions_default",
+                        stranded);
+            }
+        } catch (DataAccessException e) {
+            // Inserts still land in the default partition, the next run creates the missing partitions
+            // and moves those rows into them
+            log.error("Transaction partition maintenance failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.mini.MiniBankingApp.infrastructure.scheduling;
+
+import com.mini.MiniBankingApp.infrastructure.config.IdempotencyProperties;
+import com.mini.MiniBankingApp.infrastructure.repository.TransferIdempotencyKeyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Deletes expired transfer idempotency keys so the table only holds the retry window.
+ * Each batch is its own short statement; running it on several nodes at once only splits the work.
+ */
+@Component
+@ConditionalOnProperty(prefix = "idempotency.purge", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class TransferIdempotencyKeyPurgeJob {
+
+    private final TransferIdempotencyKeyRepository repository;
+    private final IdempotencyProperties properties;
+
+    @Scheduled(cron = "${idempotency.purge.cron:0 */15 * * * *}")
+    public void purgeKeys() {
+        int batchSize = Math.max(1, properties.getPurge().getBatchSize());
+        LocalDateTime now = LocalDateTime.now();
+        long purged = 0;
+
+        try {
+            int deleted;
+            do {
+                deleted = repository.deleteExpiredBatch(now, batchSize);
+                purged += deleted;
+            } while (deleted == batchSize);
+
+            log.info("Idempotency key purge done. Deleted: {}", purged);
+        } catch (DataAccessException e) {
+            // Whatever is left is picked up on the next schedule
+            log.error("Idempotency key purge failed after deleting {} keys: {}", purged, e.getMessage());
+        }
+    }
+}
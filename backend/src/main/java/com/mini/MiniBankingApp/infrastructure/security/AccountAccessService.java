@@ -1,9 +1,5 @@
 package com.mini.MiniBankingApp.infrastructure.security;
 
-import com.mini.MiniBankingApp.domain.user.User;
-import com.mini.MiniBankingApp.exception.UserNotFoundException;
-import com.mini.MiniBankingApp.infrastructure.repository.AccountRepository;
-import com.mini.MiniBankingApp.infrastructure.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,23 +14,18 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class AccountAccessService {
     
-    private final AccountRepository accountRepository;
-    private final UserRepository userRepository;
+    private final AccountOwnershipResolver accountOwnershipResolver;
     
     /**
      * Checks if the current authenticated user owns the specified account
      */
     public boolean hasAccountAccess(UUID accountId) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
             return false;
         }
         
-        String username = authentication.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
-        
-        return accountRepository.findByIdAndUserId(accountId, user.getId()).isPresent();
+        return accountOwnershipResolver.isOwner(user.userId(), accountId);
     }
     
     /**
@@ -1,9 +1,5 @@
 package com.mini.MiniBankingApp.infrastructure.security;
 
-import com.mini.MiniBankingApp.domain.user.User;
-import com.mini.MiniBankingApp.exception.UserNotFoundException;
-import com.mini.MiniBankingApp.infrastructure.repository.AccountRepository;
-import com.mini.MiniBankingApp.infrastructure.repository.UserRepository;
 import com.mini.MiniBankingApp.infrastructure.security.annotation.AccountId;
 import com.mini.MiniBankingApp.infrastructure.security.annotation.RequireAccountOwnership;
 import lombok.RequiredArgsConstructor;
@@ -18,8 +14,14 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Aspect
 @Component
@@ -27,20 +29,21 @@ import java.util.UUID;
 @Slf4j
 public class AccountOwnershipAspect {
     
-    private final AccountRepository accountRepository;
-    private final UserRepository userRepository;
+    private static final MethodType GETTER_TYPE = MethodType.methodType(UUID.class, Object.class);
+    
+    private final AccountOwnershipResolver accountOwnershipResolver;
+    private final Map<Method, Integer> accountIdParameters = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Optional<MethodHandle>> fromAccountIdGetters = new ConcurrentHashMap<>();
     
     @Before("@annotation(requireAccountOwnership)")
     public void checkAccountOwnership(JoinPoint joinPoint, RequireAccountOwnership requireAccountOwnership) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated() || 
-            "anonymousUser".equals(authentication.getPrincipal())) {
+            !(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
             throw new AccessDeniedException("User not authenticated");
         }
         
-        String username = authentication.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        String username = user.username();
         
         UUID accountId = extractAccountId(joinPoint);
         if (accountId == null) {
@@ -48,7 +51,7 @@ public class AccountOwnershipAspect {
             throw new AccessDeniedException("Account ID not provided");
         }
         
-        boolean isOwner = accountRepository.findByIdAndUserId(accountId, user.getId()).isPresent();
+        boolean isOwner = accountOwnershipResolver.isOwner(user.userId(), accountId);
         if (!isOwner) {
             log.warn("User {} attempted to access account {} without ownership", username, accountId);
             throw new AccessDeniedException("You don't have permission to access this account");
@@ -58,30 +61,58 @@ public class AccountOwnershipAspect {
     }
     
     private UUID extractAccountId(JoinPoint joinPoint) {
-        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        Method method = signature.getMethod();
-        Object[] args = joinPoint.getArgs();
-        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        int parameterIndex = accountIdParameters.computeIfAbsent(method, AccountOwnershipAspect::findAccountIdParameter);
+        if (parameterIndex < 0) {
+            return null;
+        }
         
+        Object arg = joinPoint.getArgs()[parameterIndex];
+        if (arg == null || arg instanceof UUID) {
+            return (UUID) arg;
+        }
+        
+        // Looked up on the runtime class like before, so subclasses of the declared type keep working
+        MethodHandle getter = fromAccountIdGetters
+                .computeIfAbsent(arg.getClass(), AccountOwnershipAspect::findFromAccountIdGetter)
+                .orElse(null);
+        if (getter == null) {
+            return null;
+        }
+        try {
+            return (UUID) getter.invokeExact(arg);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not read account ID from " + arg.getClass().getName(), e);
+        }
+    }
+    
+    /**
+     * @return the index of the @AccountId parameter, or -1 if there is none
+     */
+    private static int findAccountIdParameter(Method method) {
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
         for (int i = 0; i < parameterAnnotations.length; i++) {
             for (Annotation annotation : parameterAnnotations[i]) {
                 if (annotation instanceof AccountId) {
-                    Object arg = args[i];
-                    if (arg instanceof UUID) {
-                        return (UUID) arg;
-                    } else if (arg != null) {
-                        // Try to extract UUID from request objects
-                        try {
-                            if (arg.getClass().getMethod("getFromAccountId") != null) {
-                                return (UUID) arg.getClass().getMethod("getFromAccountId").invoke(arg);
-                            }
-                        } catch (Exception ignored) {
-                            // Fall through to other extraction methods
-                        }
-                    }
+                    return i;
                 }
             }
         }
-        return null;
+        return -1;
+    }
+    
+    /**
+     * Resolves the public getFromAccountId() of a request class once, as a MethodHandle typed for invokeExact
+     */
+    private static Optional<MethodHandle> findFromAccountIdGetter(Class<?> type) {
+        try {
+            return Optional.of(MethodHandles.publicLookup()
+                    .findVirtual(type, "getFromAccountId", MethodType.methodType(UUID.class))
+                    .asType(GETTER_TYPE));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            log.warn("@AccountId argument of type {} is neither a UUID nor has a public getFromAccountId()",
+                    type.getName());
+            return Optional.empty();
+        }
     }
-}
\ No newline at end of file
+}
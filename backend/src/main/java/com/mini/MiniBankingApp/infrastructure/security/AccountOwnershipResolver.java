@@ -0,0 +1,162 @@
+package com.mini.MiniBankingApp.infrastructure.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mini.MiniBankingApp.domain.account.Account;
+import com.mini.MiniBankingApp.infrastructure.cache.PostgresNotifier;
+import com.mini.MiniBankingApp.infrastructure.config.AccountOwnershipCacheProperties;
+import com.mini.MiniBankingApp.infrastructure.config.CacheInvalidation;
+import com.mini.MiniBankingApp.infrastructure.repository.AccountRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Resolves account ownership once per request.
+ * The account loaded by the access check is kept on the current request, so the service layer
+ * gets the already verified account instead of querying it again. Verified owners are also
+ * remembered per account for a short TTL across requests; accounts never change owner, so only a
+ * deleted account can be answered stale. Deletions evict it after commit, on every instance with
+ * POSTGRES_NOTIFY invalidation.
+ */
+@Component
+public class AccountOwnershipResolver {
+
+    private static final String REQUEST_ACCOUNTS_ATTRIBUTE = AccountOwnershipResolver.class.getName() + ".accounts";
+
+    private final AccountRepository accountRepository;
+    private final AccountOwnershipCacheProperties properties;
+    private final PostgresNotifier postgresNotifier;
+    // account ID to owner ID
+    private final Cache<UUID, UUID> verifiedOwners;
+
+    public AccountOwnershipResolver(AccountRepository accountRepository,
+                                    AccountOwnershipCacheProperties properties,
+                                    PostgresNotifier postgresNotifier,
+                                    MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.properties = properties;
+        this.postgresNotifier = postgresNotifier;
+        this.verifiedOwners = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedOwners, "accounts.ownership");
+    }
+
+    /**
+     * Checks ownership without needing the account, answered from the request or the TTL cache when possible
+     */
+    public boolean isOwner(UUID userId, UUID accountId) {
+        if (requestAccount(userId, accountId) != null) {
+            return true;
+        }
+        if (properties.isEnabled() && userId.equals(verifiedOwners.getIfPresent(accountId))) {
+            return true;
+        }
+        return loadOwnedAccount(userId, accountId).isPresent();
+    }
+
+    /**
+     * Returns the account if the user owns it, reusing the one already loaded in this request.
+     * An account reused from the request is detached, save it to write changes back.
+     */
+    public Optional<Account> findOwnedAccount(UUID userId, UUID accountId) {
+        Account account = requestAccount(userId, accountId);
+        if (account != null) {
+            return Optional.of(account);
+        }
+        return loadOwnedAccount(userId, accountId);
+    }
+
+    /**
+     * Drops what is known about the account, called when it is deleted.
+     * The current request forgets it at once, the shared cache once the surrounding transaction commits.
+     */
+    public void forget(UUID accountId) {
+        Map<UUID, Account> accounts = requestAccounts(false);
+        if (accounts != null) {
+            accounts.remove(accountId);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictEverywhere(accountId);
+                }
+            });
+        } else {
+            evictEverywhere(accountId);
+        }
+    }
+
+    /**
+     * Evicts the account from this node only
+     */
+    public void evictLocally(UUID accountId) {
+        verifiedOwners.invalidate(accountId);
+    }
+
+    public void evictAllLocally() {
+        verifiedOwners.invalidateAll();
+    }
+
+    private void evictEverywhere(UUID accountId) {
+        evictLocally(accountId);
+        if (properties.getInvalidation() == CacheInvalidation.POSTGRES_NOTIFY) {
+            postgresNotifier.send(properties.getChannel(), accountId.toString());
+        }
+    }
+
+    private Optional<Account> loadOwnedAccount(UUID userId, UUID accountId) {
+        Optional<Account> account = accountRepository.findByIdAndUserId(accountId, userId);
+        account.ifPresent(owned -> {
+            Map<UUID, Account> accounts = requestAccounts(true);
+            if (accounts != null) {
+                accounts.put(accountId, owned);
+            }
+            if (properties.isEnabled()) {
+                verifiedOwners.put(accountId, userId);
+            }
+        });
+        return account;
+    }
+
+    private Account requestAccount(UUID userId, UUID accountId) {
+        Map<UUID, Account> accounts = requestAccounts(false);
+        if (accounts == null) {
+            return null;
+        }
+        Account account = accounts.get(accountId);
+        return account != null && account.getUserId().equals(userId) ? account : null;
+    }
+
+    /**
+     * Accounts resolved during the current request, null outside of a request
+     */
+    @SuppressWarnings("unchecked")
+    private Map<UUID, Account> requestAccounts(boolean create) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Map<UUID, Account> accounts =
+                (Map<UUID, Account>) attributes.getAttribute(REQUEST_ACCOUNTS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (accounts == null && create) {
+            accounts = new HashMap<>();
+            attributes.setAttribute(REQUEST_ACCOUNTS_ATTRIBUTE, accounts, RequestAttributes.SCOPE_REQUEST);
+        }
+        return accounts;
+    }
+}
@@ -0,0 +1,20 @@
+package com.mini.MiniBankingApp.infrastructure.security;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Principal of a request authenticated with an access token, built from the token claims alone.
+ * Controllers receive it with @AuthenticationPrincipal and pass the user ID on to the services.
+ */
+public record AuthenticatedUser(UUID userId, String username, Collection<? extends GrantedAuthority> authorities)
+        implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
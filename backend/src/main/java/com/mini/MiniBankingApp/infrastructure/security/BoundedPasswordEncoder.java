@@ -0,0 +1,130 @@
+package com.mini.MiniBankingApp.infrastructure.security;
+
+import com.mini.MiniBankingApp.exception.ServiceOverloadedException;
+import com.mini.MiniBankingApp.infrastructure.config.PasswordHashingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt encoder that hashes on a dedicated pool sized to the cores instead of the request thread.
+ * The pool has a bounded queue; when it is full the request fails fast with ServiceOverloadedException,
+ * so a burst of logins cannot take all the CPU from the other endpoints.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final BCryptPasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final PasswordHashingProperties properties;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejectedCounter;
+
+    public BoundedPasswordEncoder(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        int threads = properties.getThreads() > 0
+                ? properties.getThreads()
+                : Runtime.getRuntime().availableProcessors();
+
+        this.properties = properties;
+        this.delegate = new BCryptPasswordEncoder(properties.getBcryptStrength());
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+                namedDaemonThreads(), new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("password.hash.duration")
+                .description("Time spent computing BCrypt hashes")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hash.duration")
+                .description("Time spent computing BCrypt hashes")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("password.hash.queue.wait")
+                .description("Time hash jobs waited for a hashing thread")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hash.rejected")
+                .description("Hash jobs rejected because the queue was full")
+                .register(meterRegistry);
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "password-hashing");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword), encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    /**
+     * True for hashes below the configured cost; DaoAuthenticationProvider then rehashes the password
+     * through UserDetailsPasswordService after a successful login
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private <T> T run(Callable<T> hash, Timer hashTimer) {
+        long submittedAt = System.nanoTime();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueWaitTimer.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return hash.call();
+                } finally {
+                    hashTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new ServiceOverloadedException("Password hashing queue is full", properties.getRetryAfter());
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static ThreadFactory namedDaemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,58 +1,94 @@
 package com.mini.MiniBankingApp.infrastructure.security;
 
 import com.mini.MiniBankingApp.application.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
+@Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String username;
         
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
             return;
         }
         
-        jwt = authHeader.substring(7);
-        username = jwtService.getUsernameFromToken(jwt);
+        final String jwt = authHeader.substring(7);
+        final Claims claims;
+        try {
+            // The only signature and expiration check for this request
+            claims = jwtService.verifyToken(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            // Continue unauthenticated, protected endpoints answer 401 through the entry point
+            log.debug("Rejected bearer token: {}", e.getMessage());
+            filterChain.doFilter(request, response);
+            return;
+        }
         
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            
-            if (jwtService.validateToken(jwt, userDetails.getUsername())) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            AuthenticatedUser principal = toPrincipal(claims);
+            if (principal == null) {
+                // Issued before tokens carried the user ID, the client gets a 401 and refreshes it
+                log.debug("Rejected bearer token without user ID claim");
+                filterChain.doFilter(request, response);
+                return;
             }
+            
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    principal,
+                    null,
+                    principal.authorities()
+            );
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
         
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+    
+    /**
+     * Builds the principal from the verified claims, without loading the user.
+     * Revoked access is bounded by the short access token lifetime, refresh tokens are checked in the database.
+     */
+    private AuthenticatedUser toPrincipal(Claims claims) {
+        String userId = claims.get(JwtService.USER_ID_CLAIM, String.class);
+        String username = claims.getSubject();
+        if (userId == null || username == null) {
+            return null;
+        }
+        
+        List<?> authorityClaim = claims.get(JwtService.AUTHORITIES_CLAIM, List.class);
+        List<SimpleGrantedAuthority> authorities = authorityClaim == null
+                ? List.of()
+                : authorityClaim.stream()
+                        .map(authority -> new SimpleGrantedAuthority(authority.toString()))
+                        .toList();
+        
+        return new AuthenticatedUser(UUID.fromString(userId), username, authorities);
+    }
+}
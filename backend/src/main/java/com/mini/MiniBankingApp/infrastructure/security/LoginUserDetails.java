@@ -0,0 +1,28 @@
+package com.mini.MiniBankingApp.infrastructure.security;
+
+import com.mini.MiniBankingApp.domain.user.User;
+import com.mini.MiniBankingApp.infrastructure.projection.UserSummary;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * UserDetails used for password logins. Keeps the public user data read together with the
+ * password hash, so the login can issue tokens and answer without loading the user again.
+ */
+@Getter
+public class LoginUserDetails extends org.springframework.security.core.userdetails.User {
+
+    private final UserSummary summary;
+
+    public LoginUserDetails(UserSummary summary, String password) {
+        super(summary.username(), password, List.of());
+        this.summary = summary;
+    }
+
+    public static LoginUserDetails of(User user) {
+        UserSummary summary = new UserSummary(
+                user.getId(), user.getUsername(), user.getEmail(), user.getCreatedAt(), user.getUpdatedAt());
+        return new LoginUserDetails(summary, user.getPassword());
+    }
+}
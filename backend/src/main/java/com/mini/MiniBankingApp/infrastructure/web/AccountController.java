@@ -5,6 +5,7 @@ import com.mini.MiniBankingApp.application.dto.AccountResponse;
 import com.mini.MiniBankingApp.application.dto.AccountSearchRequest;
 import com.mini.MiniBankingApp.application.dto.AccountUpdateRequest;
 import com.mini.MiniBankingApp.application.service.AccountService;
+import com.mini.MiniBankingApp.infrastructure.security.AuthenticatedUser;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -14,7 +15,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -38,9 +39,8 @@ public class AccountController {
     })
     public ResponseEntity<AccountResponse> createAccount(
             @Valid @RequestBody AccountCreateRequest request,
-            Authentication authentication) {
-        String username = authentication.getName();
-        AccountResponse response = accountService.createAccount(username, request);
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        AccountResponse response = accountService.createAccount(user.userId(), request);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
     
@@ -52,9 +52,8 @@ public class AccountController {
     })
     public ResponseEntity<List<AccountResponse>> searchAccounts(
             @RequestBody AccountSearchRequest request,
-            Authentication authentication) {
-        String username = authentication.getName();
-        List<AccountResponse> accounts = accountService.searchAccounts(username, request);
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        List<AccountResponse> accounts = accountService.searchAccounts(user.userId(), request);
         return ResponseEntity.ok(accounts);
     }
     
@@ -72,9 +71,8 @@ public class AccountController {
     public ResponseEntity<AccountResponse> updateAccount(
             @PathVariable UUID id,
             @Valid @RequestBody AccountUpdateRequest request,
-            Authentication authentication) {
-        String username = authentication.getName();
-        AccountResponse response = accountService.updateAccount(username, id, request);
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        AccountResponse response = accountService.updateAccount(user.userId(), id, request);
         return ResponseEntity.ok(response);
     }
     
@@ -90,9 +88,8 @@ public class AccountController {
     })
     public ResponseEntity<Void> deleteAccount(
             @PathVariable UUID id,
-            Authentication authentication) {
-        String username = authentication.getName();
-        accountService.deleteAccount(username, id);
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        accountService.deleteAccount(user.userId(), id);
         return ResponseEntity.noContent().build();
     }
     
@@ -107,9 +104,8 @@ public class AccountController {
     })
     public ResponseEntity<AccountResponse> getAccountDetails(
             @PathVariable UUID id,
-            Authentication authentication) {
-        String username = authentication.getName();
-        AccountResponse response = accountService.getAccountDetails(username, id);
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        AccountResponse response = accountService.getAccountDetails(user.userId(), id);
         return ResponseEntity.ok(response);
     }
 }
\ No newline at end of file
@@ -1,28 +1,45 @@
 package com.mini.MiniBankingApp.infrastructure.web;
 
 import com.mini.MiniBankingApp.application.dto.AccountBalanceResponse;
+import com.mini.MiniBankingApp.application.dto.BatchTransferRequest;
+import com.mini.MiniBankingApp.application.dto.BatchTransferResponse;
 import com.mini.MiniBankingApp.application.dto.MoneyTransferRequest;
 import com.mini.MiniBankingApp.application.dto.MoneyTransferResponse;
+import com.mini.MiniBankingApp.application.dto.TransactionExportFormat;
+import com.mini.MiniBankingApp.application.dto.TransactionHistoryCursorResponse;
 import com.mini.MiniBankingApp.application.dto.TransactionHistoryResponse;
 import com.mini.MiniBankingApp.application.dto.TransactionHistoryPageResponse;
 import com.mini.MiniBankingApp.application.mapper.TransferMapper;
+import com.mini.MiniBankingApp.application.service.AsyncTransferService;
 import com.mini.MiniBankingApp.application.service.MoneyTransferService;
+import com.mini.MiniBankingApp.application.service.TransactionExportService;
+import com.mini.MiniBankingApp.application.service.TransferIdempotencyService;
 import com.mini.MiniBankingApp.exception.AccountNotFoundException;
 import com.mini.MiniBankingApp.domain.transaction.Transaction;
 import com.mini.MiniBankingApp.exception.InsufficientFundsException;
+import com.mini.MiniBankingApp.infrastructure.security.AuthenticatedUser;
+import com.mini.MiniBankingApp.infrastructure.security.annotation.AccountId;
+import com.mini.MiniBankingApp.infrastructure.security.annotation.RequireAccountOwnership;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -33,32 +50,111 @@ import java.util.UUID;
 public class TransferController {
     
     private final MoneyTransferService moneyTransferService;
+    private final TransactionExportService transactionExportService;
     private final TransferMapper transferMapper;
+    private final TransferIdempotencyService transferIdempotencyService;
+    private final AsyncTransferService asyncTransferService;
     
     @PostMapping
     @PreAuthorize("@accountAccess.hasTransferAccess(#request.fromAccountId)")
-    @Operation(summary = "Transfer money between accounts", description = "Transfers money from one account to another")
+    @Operation(summary = "Transfer money between accounts", 
+               description = "Transfers money from one account to another. Requests sent again with the same " +
+                             "Idempotency-Key header return the first response instead of transferring again.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Transfer completed successfully"),
         @ApiResponse(responseCode = "400", description = "Invalid transfer request"),
         @ApiResponse(responseCode = "401", description = "User not authenticated"),
         @ApiResponse(responseCode = "403", description = "Access denied - not source account owner"),
         @ApiResponse(responseCode = "404", description = "Account not found"),
-        @ApiResponse(responseCode = "422", description = "Insufficient funds or validation failed")
+        @ApiResponse(responseCode = "409", description = "Idempotency key reused for another request or still in progress, see Retry-After"),
+        @ApiResponse(responseCode = "422", description = "Insufficient funds or validation failed"),
+        @ApiResponse(responseCode = "503", description = "Busy, or the transfer outcome is unknown; " +
+                                                         "retries with the same key repeat an unknown outcome")
     })
     public ResponseEntity<MoneyTransferResponse> transferMoney(
             @Valid @RequestBody MoneyTransferRequest request,
-            Authentication authentication) {
-        String username = authentication.getName();
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(executeTransfer(user, request));
+        }
         
+        MoneyTransferResponse response = transferIdempotencyService.execute(
+            user.userId(), idempotencyKey, request, () -> executeTransfer(user, request));
+        return ResponseEntity.ok(response);
+    }
+    
+    private MoneyTransferResponse executeTransfer(AuthenticatedUser user, MoneyTransferRequest request) {
         Transaction transaction = moneyTransferService.transfer(
-            username,
+            user.userId(),
             request.getFromAccountId(),
             request.getToAccountId(),
             request.getAmount()
         );
         
-        MoneyTransferResponse response = transferMapper.toResponse(transaction);
+        return transferMapper.toResponse(transaction);
+    }
+    
+    @PostMapping("/async")
+    @RequireAccountOwnership
+    @Operation(summary = "Submit money transfer for asynchronous execution", 
+               description = "Records the transfer as PENDING and executes it in the background. " +
+                             "Poll GET /api/transfers/{transactionId} for the outcome.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Transfer accepted"),
+        @ApiResponse(responseCode = "400", description = "Invalid transfer request"),
+        @ApiResponse(responseCode = "401", description = "User not authenticated"),
+        @ApiResponse(responseCode = "403", description = "Access denied - not source account owner"),
+        @ApiResponse(responseCode = "503", description = "Too many transfers waiting for execution")
+    })
+    public ResponseEntity<MoneyTransferResponse> transferMoneyAsync(
+            @AccountId @Valid @RequestBody MoneyTransferRequest request,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        Transaction transaction = asyncTransferService.submit(
+            user.userId(),
+            request.getFromAccountId(),
+            request.getToAccountId(),
+            request.getAmount()
+        );
+        
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/transfers/" + transaction.getId()))
+                .body(transferMapper.toResponse(transaction));
+    }
+    
+    @GetMapping("/{transactionId}")
+    @Operation(summary = "Get transfer status", 
+               description = "Returns a transfer the user sent or received, PENDING until an asynchronous transfer was executed")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Transfer found"),
+        @ApiResponse(responseCode = "401", description = "User not authenticated"),
+        @ApiResponse(responseCode = "404", description = "Transfer not found")
+    })
+    public ResponseEntity<MoneyTransferResponse> getTransfer(
+            @PathVariable Long transactionId,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        Transaction transaction = moneyTransferService.getTransfer(user.userId(), transactionId);
+        return ResponseEntity.ok(transferMapper.toResponse(transaction));
+    }
+    
+    @PostMapping("/batch")
+    @Operation(summary = "Transfer money in batch", 
+               description = "Executes many transfers from the authenticated user's accounts in one database transaction. " +
+                             "ALL_OR_NOTHING commits either every transfer or none, BEST_EFFORT commits the valid ones.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch processed, see per-transfer results"),
+        @ApiResponse(responseCode = "400", description = "Invalid batch request, or more transfers than a rate limit allows at once"),
+        @ApiResponse(responseCode = "401", description = "User not authenticated")
+    })
+    public ResponseEntity<BatchTransferResponse> transferMoneyBatch(
+            @Valid @RequestBody BatchTransferRequest request,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        BatchTransferResponse response = moneyTransferService.transferBatch(
+            user.userId(),
+            request.getTransfers(),
+            request.getMode()
+        );
+        
         return ResponseEntity.ok(response);
     }
     
@@ -93,9 +189,8 @@ public class TransferController {
     })
     public ResponseEntity<List<TransactionHistoryResponse>> getTransactionHistory(
             @PathVariable UUID accountId,
-            Authentication authentication) {
-        String username = authentication.getName();
-        List<TransactionHistoryResponse> history = moneyTransferService.getTransactionHistory(username, accountId);
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        List<TransactionHistoryResponse> history = moneyTransferService.getTransactionHistory(user.userId(), accountId);
         return ResponseEntity.ok(history);
     }
     
@@ -113,9 +208,60 @@ public class TransferController {
             @PathVariable UUID accountId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            Authentication authentication) {
-        String username = authentication.getName();
-        TransactionHistoryPageResponse history = moneyTransferService.getTransactionHistoryPaginated(username, accountId, page, size);
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        TransactionHistoryPageResponse history = moneyTransferService.getTransactionHistoryPaginated(user.userId(), accountId, page, size);
+        return ResponseEntity.ok(history);
+    }
+    
+    @GetMapping("/transactions/account/{accountId}/cursor")
+    @PreAuthorize("@accountAccess.hasAccountAccess(#accountId)")
+    @Operation(summary = "View transaction history by cursor", 
+               description = "Retrieves transaction history newest first, one page after the given cursor. " +
+                             "Pass the returned nextCursor as 'after' to load the next page. " +
+                             "Optional from/to dates (inclusive) limit the range. Access restricted to account owner.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Transaction history retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or page size"),
+        @ApiResponse(responseCode = "401", description = "User not authenticated"),
+        @ApiResponse(responseCode = "403", description = "Access denied - not account owner"),
+        @ApiResponse(responseCode = "404", description = "Account not found")
+    })
+    public ResponseEntity<TransactionHistoryCursorResponse> getTransactionHistoryByCursor(
+            @PathVariable UUID accountId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int size,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        TransactionHistoryCursorResponse history = moneyTransferService.getTransactionHistoryByCursor(
+                user.userId(), accountId, after, from, to, size);
         return ResponseEntity.ok(history);
     }
+    
+    @GetMapping("/transactions/account/{accountId}/export")
+    @PreAuthorize("@accountAccess.hasAccountAccess(#accountId)")
+    @Operation(summary = "Export transaction history", 
+               description = "Streams the transaction history of a specified account, newest first, as CSV or NDJSON. " +
+                             "Optional from/to dates (inclusive) limit the range. Access restricted to account owner.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export streamed successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid format or date range"),
+        @ApiResponse(responseCode = "401", description = "User not authenticated"),
+        @ApiResponse(responseCode = "403", description = "Access denied - not account owner"),
+        @ApiResponse(responseCode = "404", description = "Account not found")
+    })
+    public ResponseEntity<StreamingResponseBody> exportTransactionHistory(
+            @PathVariable UUID accountId,
+            @RequestParam(defaultValue = "CSV") TransactionExportFormat format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        StreamingResponseBody body = transactionExportService.exportTransactionHistory(user.userId(), accountId, from, to, format);
+        
+        String fileName = "transactions-" + accountId + "." + format.getFileExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
 }
\ No newline at end of file
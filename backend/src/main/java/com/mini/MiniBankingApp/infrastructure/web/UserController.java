@@ -2,6 +2,7 @@ package com.mini.MiniBankingApp.infrastructure.web;
 
 import com.mini.MiniBankingApp.application.dto.*;
 import com.mini.MiniBankingApp.application.service.UserService;
+import com.mini.MiniBankingApp.infrastructure.security.AuthenticatedUser;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -10,7 +11,7 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -52,9 +53,8 @@ public class UserController {
         @ApiResponse(responseCode = "401", description = "User not authenticated"),
         @ApiResponse(responseCode = "404", description = "User not found")
     })
-    public ResponseEntity<UserResponse> getUserProfile(Authentication authentication) {
-        String username = authentication.getName();
-        UserResponse userResponse = userService.getUserByUsername(username);
+    public ResponseEntity<UserResponse> getUserProfile(@AuthenticationPrincipal AuthenticatedUser user) {
+        UserResponse userResponse = userService.getUser(user.userId());
         return ResponseEntity.ok(userResponse);
     }
     
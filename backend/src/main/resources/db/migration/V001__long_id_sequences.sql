@@ -0,0 +1,23 @@
+-- Moves transactions and refresh_tokens from IDENTITY columns to pooled sequences.
+-- Hibernate creates the sequences on startup; this script detaches the old identity
+-- and moves each sequence past the IDs already in the table. Safe to run repeatedly.
+
+ALTER TABLE minibanking_schema.transactions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE minibanking_schema.transactions ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE minibanking_schema.refresh_tokens ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE minibanking_schema.refresh_tokens ALTER COLUMN id DROP DEFAULT;
+
+CREATE SEQUENCE IF NOT EXISTS minibanking_schema.transactions_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS minibanking_schema.refresh_tokens_seq START WITH 1 INCREMENT BY 50;
+
+-- pooled-lo hands out [value, value + increment) per nextval, so the sequence only
+-- needs moving when existing rows reach past the last block it has handed out.
+SELECT setval('minibanking_schema.transactions_seq', m.max_id + 1, false)
+FROM (SELECT COALESCE(MAX(id), 0) AS max_id FROM minibanking_schema.transactions) m
+JOIN pg_sequences s ON s.schemaname = 'minibanking_schema' AND s.sequencename = 'transactions_seq'
+WHERE m.max_id >= COALESCE(s.last_value + s.increment_by, s.start_value);
+
+SELECT setval('minibanking_schema.refresh_tokens_seq', m.max_id + 1, false)
+FROM (SELECT COALESCE(MAX(id), 0) AS max_id FROM minibanking_schema.refresh_tokens) m
+JOIN pg_sequences s ON s.schemaname = 'minibanking_schema' AND s.sequencename = 'refresh_tokens_seq'
+WHERE m.max_id >= COALESCE(s.last_value + s.increment_by, s.start_value);
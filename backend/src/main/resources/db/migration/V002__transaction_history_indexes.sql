@@ -0,0 +1,9 @@
+-- Supports the account history queries, which read the outgoing and incoming
+-- transactions of an account as two index-ordered branches (see TransactionRepository).
+-- id is part of the key so keyset pagination on (created_at, id) stays an index range scan.
+
+CREATE INDEX IF NOT EXISTS idx_transactions_from_account_created
+    ON minibanking_schema.transactions (from_account_id, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_transactions_to_account_created
+    ON minibanking_schema.transactions (to_account_id, created_at DESC, id DESC);
@@ -0,0 +1,103 @@
+-- Converts transactions into a table range partitioned by created_at month.
+-- The conversion only runs while transactions is still a plain table: existing rows are copied
+-- into monthly partitions and the old table is dropped, all in the same transaction.
+-- The maintenance functions are (re)created on every run and called by TransactionPartitionMaintenanceJob.
+
+-- Creates the monthly partitions from from_month through months_ahead months after the current one
+CREATE OR REPLACE FUNCTION minibanking_schema.ensure_transaction_partitions(from_month date, months_ahead integer)
+RETURNS integer AS $$
+DECLARE
+    month_start date := date_trunc('month', from_month)::date;
+    last_month date := (date_trunc('month', current_date) + make_interval(months => months_ahead))::date;
+    partition_name text;
+    created integer := 0;
+BEGIN
+    -- Serializes concurrent runs from several application nodes
+    PERFORM pg_advisory_xact_lock(hashtext('minibanking_schema.transactions partitions'));
+
+    WHILE month_start <= last_month LOOP
+        partition_name := 'transactions_p' || to_char(month_start, 'YYYY_MM');
+        IF to_regclass('minibanking_schema.' || partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE minibanking_schema.%I PARTITION OF minibanking_schema.transactions ' ||
+                           'FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, month_start, (month_start + interval '1 month')::date);
+            created := created + 1;
+        END IF;
+        month_start := (month_start + interval '1 month')::date;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Detaches monthly partitions that ended more than retention_months ago and moves them
+-- into archive_schema, where they stay queryable until they are dumped or dropped
+CREATE OR REPLACE FUNCTION minibanking_schema.archive_transaction_partitions(retention_months integer, archive_schema text)
+RETURNS integer AS $$
+DECLARE
+    cutoff date := (date_trunc('month', current_date) - make_interval(months => retention_months))::date;
+    expired record;
+    archived integer := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('minibanking_schema.transactions partitions'));
+    EXECUTE format('CREATE SCHEMA IF NOT EXISTS %I', archive_schema);
+
+    FOR expired IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'minibanking_schema.transactions'::regclass
+          AND c.relname ~ '^transactions_p[0-9]{4}_[0-9]{2}$'
+          AND to_date(substring(c.relname FROM 15), 'YYYY_MM') + interval '1 month' <= cutoff
+        ORDER BY c.relname
+    LOOP
+        EXECUTE format('ALTER TABLE minibanking_schema.transactions DETACH PARTITION minibanking_schema.%I',
+                       expired.relname);
+        EXECUTE format('ALTER TABLE minibanking_schema.%I SET SCHEMA %I', expired.relname, archive_schema);
+        archived := archived + 1;
+    END LOOP;
+    RETURN archived;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+    first_month date;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class c
+               JOIN pg_namespace n ON n.oid = c.relnamespace
+               WHERE n.nspname = 'minibanking_schema' AND c.relname = 'transactions' AND c.relkind = 'r') THEN
+
+        ALTER TABLE minibanking_schema.transactions RENAME TO transactions_legacy;
+        ALTER INDEX IF EXISTS minibanking_schema.transactions_pkey RENAME TO transactions_legacy_pkey;
+        ALTER INDEX IF EXISTS minibanking_schema.idx_transactions_from_account_created
+            RENAME TO idx_transactions_legacy_from_account_created;
+        ALTER INDEX IF EXISTS minibanking_schema.idx_transactions_to_account_created
+            RENAME TO idx_transactions_legacy_to_account_created;
+
+        -- The partition key has to be part of the primary key; id alone stays unique through the sequence
+        CREATE TABLE minibanking_schema.transactions (
+            LIKE minibanking_schema.transactions_legacy INCLUDING DEFAULTS,
+            CONSTRAINT transactions_pkey PRIMARY KEY (id, created_at)
+        ) PARTITION BY RANGE (created_at);
+
+        -- Catches rows outside every monthly partition instead of failing the insert
+        CREATE TABLE minibanking_schema.transactions_default
+            PARTITION OF minibanking_schema.transactions DEFAULT;
+
+        SELECT date_trunc('month', coalesce(min(created_at), current_date))::date
+        INTO first_month
+        FROM minibanking_schema.transactions_legacy;
+
+        PERFORM minibanking_schema.ensure_transaction_partitions(first_month, 3);
+
+        INSERT INTO minibanking_schema.transactions SELECT * FROM minibanking_schema.transactions_legacy;
+        DROP TABLE minibanking_schema.transactions_legacy;
+    END IF;
+END;
+$$;
+
+CREATE INDEX IF NOT EXISTS idx_transactions_from_account_created
+    ON minibanking_schema.transactions (from_account_id, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_transactions_to_account_created
+    ON minibanking_schema.transactions (to_account_id, created_at DESC, id DESC);
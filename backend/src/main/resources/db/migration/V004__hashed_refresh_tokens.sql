@@ -0,0 +1,33 @@
+-- Refresh tokens are stored as SHA-256 hex digests under a unique index instead of in clear text.
+-- Existing tokens are hashed in place, so clients keep their sessions, and the clear text column is dropped.
+-- On a database with rows Hibernate cannot add the NOT NULL column itself; it is added here first.
+-- Safe to run repeatedly.
+
+ALTER TABLE minibanking_schema.refresh_tokens ADD COLUMN IF NOT EXISTS token_hash varchar(64);
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = 'minibanking_schema'
+                 AND table_name = 'refresh_tokens'
+                 AND column_name = 'token') THEN
+        UPDATE minibanking_schema.refresh_tokens
+        SET token_hash = encode(sha256(convert_to(token, 'UTF8')), 'hex')
+        WHERE token_hash IS NULL;
+
+        ALTER TABLE minibanking_schema.refresh_tokens DROP COLUMN token;
+    END IF;
+END $$;
+
+ALTER TABLE minibanking_schema.refresh_tokens ALTER COLUMN token_hash SET NOT NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_refresh_tokens_token_hash
+    ON minibanking_schema.refresh_tokens (token_hash);
+
+-- Login revokes the active tokens of a user
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user_revoked
+    ON minibanking_schema.refresh_tokens (user_id, is_revoked);
+
+-- The purge job deletes by expiry
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expires_at
+    ON minibanking_schema.refresh_tokens (expires_at);
@@ -0,0 +1,8 @@
+-- Last journal sequence of each ledger partition that has been written to the accounts and transactions tables.
+-- Updated in the same database transaction as the rows, so replay after a crash never applies a record twice.
+-- Safe to run repeatedly.
+
+CREATE TABLE IF NOT EXISTS minibanking_schema.ledger_checkpoints (
+    partition_id integer PRIMARY KEY,
+    journal_sequence bigint NOT NULL
+);
@@ -0,0 +1,12 @@
+-- Sub-balances of hot accounts. Credits to a hot account are added to one of its shard rows instead of the
+-- accounts row, so concurrent deposits do not queue on a single row lock. The account balance is the
+-- accounts row plus the sum of its shards; shards are folded back into the accounts row by debits that
+-- need them and by the consolidation job.
+-- Safe to run repeatedly.
+
+CREATE TABLE IF NOT EXISTS minibanking_schema.account_balance_shards (
+    account_id uuid NOT NULL,
+    shard_no integer NOT NULL,
+    balance numeric(19, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (account_id, shard_no)
+);
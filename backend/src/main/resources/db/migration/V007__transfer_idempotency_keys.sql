@@ -0,0 +1,18 @@
+-- Idempotency keys of transfer requests. A row is claimed before the transfer runs and gets the
+-- serialized response once it succeeded; failed transfers remove their row so a retry runs again.
+-- The unique key makes concurrent duplicates on different instances see the same claim.
+-- Safe to run repeatedly.
+
+CREATE TABLE IF NOT EXISTS minibanking_schema.transfer_idempotency_keys (
+    user_id uuid NOT NULL,
+    idempotency_key varchar(255) NOT NULL,
+    request_hash varchar(64) NOT NULL,
+    response text,
+    created_at timestamp NOT NULL,
+    expires_at timestamp NOT NULL,
+    PRIMARY KEY (user_id, idempotency_key)
+);
+
+-- The purge job deletes by expiry
+CREATE INDEX IF NOT EXISTS idx_transfer_idempotency_keys_expires_at
+    ON minibanking_schema.transfer_idempotency_keys (expires_at);
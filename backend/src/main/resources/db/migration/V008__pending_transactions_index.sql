@@ -0,0 +1,7 @@
+-- Asynchronous transfers are stored as PENDING rows until they are executed. Startup looks them up
+-- to resume the ones a previous run left behind; the partial index stays as small as the backlog.
+-- Safe to run repeatedly.
+
+CREATE INDEX IF NOT EXISTS idx_transactions_pending
+    ON minibanking_schema.transactions (id)
+    WHERE status = 'PENDING';
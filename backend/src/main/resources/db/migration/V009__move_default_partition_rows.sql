@@ -0,0 +1,51 @@
+-- Rows of a month without partition land in transactions_default. Creating that month's partition
+-- afterwards fails while the default partition holds rows in its range, so they would stay there for good.
+-- ensure_transaction_partitions now detaches the default partition, creates the month's partition,
+-- moves the rows across and attaches the default partition again, all in the caller's transaction.
+-- Replaces the function created by V003; safe to run repeatedly.
+
+CREATE OR REPLACE FUNCTION minibanking_schema.ensure_transaction_partitions(from_month date, months_ahead integer)
+RETURNS integer AS $$
+DECLARE
+    month_start date := date_trunc('month', from_month)::date;
+    month_end date;
+    last_month date := (date_trunc('month', current_date) + make_interval(months => months_ahead))::date;
+    partition_name text;
+    has_default boolean := to_regclass('minibanking_schema.transactions_default') IS NOT NULL;
+    moved bigint;
+    created integer := 0;
+BEGIN
+    -- Serializes concurrent runs from several application nodes
+    PERFORM pg_advisory_xact_lock(hashtext('minibanking_schema.transactions partitions'));
+
+    WHILE month_start <= last_month LOOP
+        month_end := (month_start + interval '1 month')::date;
+        partition_name := 'transactions_p' || to_char(month_start, 'YYYY_MM');
+        IF to_regclass('minibanking_schema.' || partition_name) IS NULL THEN
+            IF has_default AND EXISTS (SELECT 1 FROM minibanking_schema.transactions_default
+                                       WHERE created_at >= month_start AND created_at < month_end) THEN
+                -- Inserts into transactions wait for the locks taken here until the caller commits
+                ALTER TABLE minibanking_schema.transactions DETACH PARTITION minibanking_schema.transactions_default;
+                EXECUTE format('CREATE TABLE minibanking_schema.%I PARTITION OF minibanking_schema.transactions ' ||
+                               'FOR VALUES FROM (%L) TO (%L)',
+                               partition_name, month_start, month_end);
+                EXECUTE format('WITH moved AS (DELETE FROM minibanking_schema.transactions_default ' ||
+                               'WHERE created_at >= %L AND created_at < %L RETURNING *) ' ||
+                               'INSERT INTO minibanking_schema.%I SELECT * FROM moved',
+                               month_start, month_end, partition_name);
+                GET DIAGNOSTICS moved = ROW_COUNT;
+                ALTER TABLE minibanking_schema.transactions
+                    ATTACH PARTITION minibanking_schema.transactions_default DEFAULT;
+                RAISE WARNING 'Moved % rows from transactions_default into new partition %', moved, partition_name;
+            ELSE
+                EXECUTE format('CREATE TABLE minibanking_schema.%I PARTITION OF minibanking_schema.transactions ' ||
+                               'FOR VALUES FROM (%L) TO (%L)',
+                               partition_name, month_start, month_end);
+            END IF;
+            created := created + 1;
+        END IF;
+        month_start := month_end;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,6 @@
+-- A transfer whose outcome is unknown marks its idempotency key failed instead of leaving it in progress,
+-- so retries with the key get that answer at once rather than waiting for the claim to expire.
+-- Safe to run repeatedly.
+
+ALTER TABLE minibanking_schema.transfer_idempotency_keys
+    ADD COLUMN IF NOT EXISTS failed boolean NOT NULL DEFAULT false;
@@ -0,0 +1,50 @@
+package com.mini.MiniBankingApp;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Points the application at a PostgreSQL server started once per test JVM from the embedded binaries,
+ * so database tests need neither a local server nor Docker. Use it with
+ * {@code @ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)}.
+ */
+public class EmbeddedPostgresInitializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+	private static EmbeddedPostgres postgres;
+
+	@Override
+	public void initialize(ConfigurableApplicationContext context) {
+		EmbeddedPostgres server = server();
+		TestPropertyValues.of(
+				"spring.datasource.url=" + server.getJdbcUrl("postgres", "postgres"),
+				"spring.datasource.username=postgres",
+				"spring.datasource.password=")
+				.applyTo(context);
+	}
+
+	private static synchronized EmbeddedPostgres server() {
+		if (postgres == null) {
+			try {
+				postgres = EmbeddedPostgres.start();
+				// Created by database/init.sql in the docker-compose setup, Hibernate expects it to exist
+				try (Connection connection = postgres.getPostgresDatabase().getConnection();
+					 Statement statement = connection.createStatement()) {
+					statement.execute("CREATE SCHEMA IF NOT EXISTS minibanking_schema");
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException("Could not start embedded PostgreSQL", e);
+			} catch (SQLException e) {
+				throw new IllegalStateException("Could not prepare embedded PostgreSQL", e);
+			}
+		}
+		return postgres;
+	}
+}
@@ -0,0 +1,109 @@
+package com.mini.MiniBankingApp.application.service;
+
+import com.mini.MiniBankingApp.EmbeddedPostgresInitializer;
+import com.mini.MiniBankingApp.domain.account.TurkishLiraAccount;
+import com.mini.MiniBankingApp.domain.transaction.Transaction;
+import com.mini.MiniBankingApp.domain.transaction.TransactionStatus;
+import com.mini.MiniBankingApp.domain.user.User;
+import com.mini.MiniBankingApp.infrastructure.repository.AccountRepository;
+import com.mini.MiniBankingApp.infrastructure.repository.TransactionRepository;
+import com.mini.MiniBankingApp.infrastructure.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two executors complete the same pending transfer at the same time against the database;
+ * the row claim has to let exactly one of them move the balances
+ */
+@SpringBootTest
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+class CompletePendingTransferConcurrencyTests {
+
+	private static final int ROUNDS = 20;
+
+	@Autowired
+	private MoneyTransferService moneyTransferService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final ExecutorService executors = Executors.newFixedThreadPool(2);
+	private UUID userId;
+	private UUID fromAccountId;
+	private UUID toAccountId;
+
+	@BeforeEach
+	void createAccounts() {
+		String suffix = UUID.randomUUID().toString().substring(0, 8);
+		userId = userRepository.save(new User("pending-" + suffix, "password", "pending-" + suffix + "@example.com")).getId();
+		fromAccountId = accountRepository.save(new TurkishLiraAccount(userId, "PT1" + suffix, "Source", new BigDecimal("100.00"))).getId();
+		toAccountId = accountRepository.save(new TurkishLiraAccount(userId, "PT2" + suffix, "Target", BigDecimal.ZERO)).getId();
+	}
+
+	@AfterEach
+	void removeAccounts() {
+		executors.shutdownNow();
+		jdbcTemplate.update("DELETE FROM minibanking_schema.transactions WHERE from_account_id = ?", fromAccountId);
+		accountRepository.deleteAllById(List.of(fromAccountId, toAccountId));
+		userRepository.deleteById(userId);
+	}
+
+	@Test
+	void onlyOneOfTwoConcurrentExecutorsMovesTheBalances() throws Exception {
+		for (int round = 0; round < ROUNDS; round++) {
+			Transaction pending = moneyTransferService.createPendingTransfer(fromAccountId, toAccountId, BigDecimal.ONE);
+			CyclicBarrier start = new CyclicBarrier(2);
+
+			List<Future<TransactionStatus>> executions = new ArrayList<>();
+			for (int executor = 0; executor < 2; executor++) {
+				executions.add(executors.submit(() -> {
+					start.await(5, TimeUnit.SECONDS);
+					return moneyTransferService.completePendingTransfer(userId, pending);
+				}));
+			}
+
+			List<TransactionStatus> statuses = new ArrayList<>();
+			for (Future<TransactionStatus> execution : executions) {
+				statuses.add(execution.get(30, TimeUnit.SECONDS));
+			}
+			assertThat(statuses).as("round %d", round)
+					.containsExactlyInAnyOrder(TransactionStatus.SUCCESS, TransactionStatus.PENDING);
+			assertThat(transactionRepository.findById(pending.getId()).orElseThrow().getStatus())
+					.isEqualTo(TransactionStatus.SUCCESS);
+		}
+
+		assertThat(balanceOf(fromAccountId)).isEqualByComparingTo(new BigDecimal(100 - ROUNDS));
+		assertThat(balanceOf(toAccountId)).isEqualByComparingTo(new BigDecimal(ROUNDS));
+	}
+
+	private BigDecimal balanceOf(UUID accountId) {
+		return jdbcTemplate.queryForObject(
+				"SELECT balance FROM minibanking_schema.accounts WHERE id = ?", BigDecimal.class, accountId);
+	}
+}
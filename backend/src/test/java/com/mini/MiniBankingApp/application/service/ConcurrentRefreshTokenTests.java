@@ -0,0 +1,81 @@
+package com.mini.MiniBankingApp.application.service;
+
+import com.mini.MiniBankingApp.EmbeddedPostgresInitializer;
+import com.mini.MiniBankingApp.domain.user.User;
+import com.mini.MiniBankingApp.infrastructure.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Logins of the same user issue refresh tokens at the same time against the database;
+ * only the last one may stay active
+ */
+@SpringBootTest
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+class ConcurrentRefreshTokenTests {
+
+	private static final int ROUNDS = 20;
+	private static final int LOGINS = 4;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final ExecutorService logins = Executors.newFixedThreadPool(LOGINS);
+	private UUID userId;
+
+	@BeforeEach
+	void createUser() {
+		String suffix = UUID.randomUUID().toString().substring(0, 8);
+		userId = userRepository.save(new User("tokens-" + suffix, "password", "tokens-" + suffix + "@example.com")).getId();
+	}
+
+	@AfterEach
+	void removeUser() {
+		logins.shutdownNow();
+		jdbcTemplate.update("DELETE FROM minibanking_schema.refresh_tokens WHERE user_id = ?", userId);
+		userRepository.deleteById(userId);
+	}
+
+	@Test
+	void leavesOneActiveTokenAfterConcurrentLogins() throws Exception {
+		for (int round = 0; round < ROUNDS; round++) {
+			CyclicBarrier start = new CyclicBarrier(LOGINS);
+			List<Future<String>> tokens = new ArrayList<>();
+			for (int login = 0; login < LOGINS; login++) {
+				tokens.add(logins.submit(() -> {
+					start.await(5, TimeUnit.SECONDS);
+					return jwtService.generateRefreshToken(userId);
+				}));
+			}
+			for (Future<String> token : tokens) {
+				token.get(30, TimeUnit.SECONDS);
+			}
+
+			assertThat(jdbcTemplate.queryForObject(
+					"SELECT count(*) FROM minibanking_schema.refresh_tokens WHERE user_id = ? AND NOT is_revoked",
+					Integer.class, userId)).as("round %d", round).isEqualTo(1);
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package com.mini.MiniBankingApp.application.service;
+
+import com.mini.MiniBankingApp.domain.transaction.Transaction;
+import com.mini.MiniBankingApp.domain.transaction.TransactionStatus;
+import com.mini.MiniBankingApp.infrastructure.config.TransferProperties;
+import com.mini.MiniBankingApp.infrastructure.config.TransferProperties.LockingStrategy;
+import com.mini.MiniBankingApp.infrastructure.ledger.LedgerEngine;
+import com.mini.MiniBankingApp.infrastructure.metrics.TransferMetrics;
+import com.mini.MiniBankingApp.infrastructure.repository.AccountRepository;
+import com.mini.MiniBankingApp.infrastructure.repository.TransactionHistoryJdbcRepository;
+import com.mini.MiniBankingApp.infrastructure.repository.TransactionRepository;
+import com.mini.MiniBankingApp.infrastructure.security.AccountOwnershipResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * A pending transfer can be picked up by more than one executor, e.g. after a restart;
+ * only the one that claims the row may move the balances. The race itself is exercised
+ * against the database in {@link CompletePendingTransferConcurrencyTests}.
+ */
+class MoneyTransferServicePendingTransferTests {
+
+	private static final UUID USER_ID = UUID.randomUUID();
+	private static final UUID FROM = UUID.randomUUID();
+	private static final UUID TO = UUID.randomUUID();
+	private static final BigDecimal AMOUNT = new BigDecimal("25.00");
+
+	private AccountRepository accountRepository;
+	private TransactionRepository transactionRepository;
+	private HotAccountBalances hotAccountBalances;
+	private MoneyTransferService moneyTransferService;
+	private Transaction pending;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		accountRepository = mock(AccountRepository.class);
+		transactionRepository = mock(TransactionRepository.class);
+		hotAccountBalances = mock(HotAccountBalances.class);
+
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+
+		TransferProperties transferProperties = new TransferProperties();
+		transferProperties.setLocking(LockingStrategy.CONDITIONAL_UPDATE);
+
+		moneyTransferService = new MoneyTransferService(
+				accountRepository,
+				transactionRepository,
+				mock(TransactionHistoryJdbcRepository.class),
+				mock(TransactionLogService.class),
+				new TransactionTemplate(transactionManager),
+				transferProperties,
+				mock(TransferMetrics.class),
+				mock(BatchTransferProcessor.class),
+				mock(AccountOwnershipResolver.class),
+				(ObjectProvider<LedgerEngine>) mock(ObjectProvider.class),
+				mock(GroupCommitTransferPipeline.class),
+				hotAccountBalances);
+
+		pending = Transaction.createPendingTransaction(FROM, TO, AMOUNT);
+		pending.setId(42L);
+	}
+
+	@Test
+	void skipsATransferAnotherExecutorAlreadyClaimed() {
+		when(transactionRepository.completePending(eq(42L), eq("SUCCESS"), any())).thenReturn(0);
+
+		TransactionStatus status = moneyTransferService.completePendingTransfer(USER_ID, pending);
+
+		assertThat(status).isEqualTo(TransactionStatus.PENDING);
+		verifyNoInteractions(accountRepository, hotAccountBalances);
+		verify(transactionRepository, never()).completePending(eq(42L), eq("FAILED"), any());
+	}
+
+	@Test
+	void movesTheBalancesOfAClaimedTransfer() {
+		when(transactionRepository.completePending(eq(42L), eq("SUCCESS"), any())).thenReturn(1);
+		when(accountRepository.debitIfSufficient(eq(FROM), eq(USER_ID), eq(AMOUNT), any())).thenReturn(1);
+		when(accountRepository.creditIfSameCurrency(eq(TO), eq(FROM), eq(AMOUNT), any())).thenReturn(1);
+
+		TransactionStatus status = moneyTransferService.completePendingTransfer(USER_ID, pending);
+
+		assertThat(status).isEqualTo(TransactionStatus.SUCCESS);
+		verify(accountRepository, times(1)).debitIfSufficient(eq(FROM), eq(USER_ID), eq(AMOUNT), any());
+		verify(accountRepository, times(1)).creditIfSameCurrency(eq(TO), eq(FROM), eq(AMOUNT), any());
+	}
+
+	@Test
+	void marksARejectedTransferFailed() {
+		when(transactionRepository.completePending(eq(42L), anyString(), any())).thenReturn(1);
+		// Neither guarded update matches and the source account is not the user's
+		when(accountRepository.debitIfSufficient(any(), any(), any(), any())).thenReturn(0);
+		when(accountRepository.creditIfSameCurrency(any(), any(), any(), any())).thenReturn(0);
+
+		TransactionStatus status = moneyTransferService.completePendingTransfer(USER_ID, pending);
+
+		assertThat(status).isEqualTo(TransactionStatus.FAILED);
+		verify(transactionRepository).completePending(eq(42L), eq("FAILED"), any());
+	}
+}
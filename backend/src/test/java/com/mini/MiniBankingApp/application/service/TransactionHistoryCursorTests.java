@@ -0,0 +1,52 @@
+package com.mini.MiniBankingApp.application.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionHistoryCursorTests {
+
+	@Test
+	void roundTripsMicrosecondTimestamps() {
+		TransactionHistoryCursor cursor = new TransactionHistoryCursor(
+				LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_793_000), 4_611_686_018_427_387_904L);
+
+		String token = cursor.encode();
+
+		assertThat(token).matches("[A-Za-z0-9_-]+");
+		assertThat(TransactionHistoryCursor.decode(token)).isEqualTo(cursor);
+	}
+
+	@Test
+	void roundTripsTimestampsOnAWholeMinute() {
+		// LocalDateTime.toString drops zero seconds, parsing has to accept that form too
+		TransactionHistoryCursor cursor = new TransactionHistoryCursor(LocalDateTime.of(2025, 1, 1, 0, 0), 1L);
+
+		assertThat(TransactionHistoryCursor.decode(cursor.encode())).isEqualTo(cursor);
+	}
+
+	@Test
+	void rejectsTokensThatAreNotCursors() {
+		assertThatThrownBy(() -> TransactionHistoryCursor.decode("not base64!"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Invalid cursor");
+		assertThatThrownBy(() -> TransactionHistoryCursor.decode(encode("2025-01-01T00:00")))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Invalid cursor");
+		assertThatThrownBy(() -> TransactionHistoryCursor.decode(encode("yesterday|1")))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Invalid cursor");
+		assertThatThrownBy(() -> TransactionHistoryCursor.decode(encode("2025-01-01T00:00|one")))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Invalid cursor");
+	}
+
+	private static String encode(String value) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+	}
+}
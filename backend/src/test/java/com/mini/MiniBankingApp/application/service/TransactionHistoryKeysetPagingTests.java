@@ -0,0 +1,120 @@
+package com.mini.MiniBankingApp.application.service;
+
+import com.mini.MiniBankingApp.EmbeddedPostgresInitializer;
+import com.mini.MiniBankingApp.application.dto.TransactionHistoryCursorResponse;
+import com.mini.MiniBankingApp.application.dto.TransactionHistoryResponse;
+import com.mini.MiniBankingApp.domain.account.Account;
+import com.mini.MiniBankingApp.domain.account.TurkishLiraAccount;
+import com.mini.MiniBankingApp.domain.user.User;
+import com.mini.MiniBankingApp.infrastructure.repository.AccountRepository;
+import com.mini.MiniBankingApp.infrastructure.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pages through a history whose rows mostly share one created_at, so the page
+ * boundaries fall between rows that only the id tiebreaker orders
+ */
+@SpringBootTest
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+@Transactional
+class TransactionHistoryKeysetPagingTests {
+
+	private static final LocalDateTime SAME_INSTANT = LocalDateTime.of(2025, 6, 1, 12, 0, 0, 123_456_000);
+
+	@Autowired
+	private MoneyTransferService moneyTransferService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private UUID userId;
+	private UUID accountId;
+	private UUID otherAccountId;
+
+	@BeforeEach
+	void createAccounts() {
+		String suffix = UUID.randomUUID().toString().substring(0, 8);
+		User user = userRepository.saveAndFlush(new User("keyset-" + suffix, "password", "keyset-" + suffix + "@example.com"));
+		userId = user.getId();
+		accountId = saveAccount("KS1" + suffix);
+		otherAccountId = saveAccount("KS2" + suffix);
+	}
+
+	@Test
+	void pagesAcrossRowsWithEqualCreatedAtWithoutGapsOrDuplicates() {
+		Long newest = insert(accountId, otherAccountId, SAME_INSTANT.plusSeconds(1));
+		List<Long> sameInstant = new ArrayList<>();
+		for (int i = 0; i < 7; i++) {
+			sameInstant.add(i % 2 == 0
+					? insert(accountId, otherAccountId, SAME_INSTANT)
+					: insert(otherAccountId, accountId, SAME_INSTANT));
+		}
+		Long oldest = insert(otherAccountId, accountId, SAME_INSTANT.minusSeconds(1));
+
+		// Newest first, rows with equal created_at by descending id, i.e. reverse insertion order
+		List<Long> expected = new ArrayList<>();
+		expected.add(newest);
+		expected.addAll(sameInstant.reversed());
+		expected.add(oldest);
+
+		List<Long> paged = new ArrayList<>();
+		List<Integer> pageSizes = new ArrayList<>();
+		String cursor = null;
+		do {
+			TransactionHistoryCursorResponse page = moneyTransferService.getTransactionHistoryByCursor(
+					userId, accountId, cursor, null, null, 3);
+			page.getTransactions().stream().map(TransactionHistoryResponse::getId).forEach(paged::add);
+			pageSizes.add(page.getTransactions().size());
+			assertThat(page.getNextCursor() != null).isEqualTo(page.isHasNext());
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+
+		assertThat(paged).containsExactlyElementsOf(expected);
+		assertThat(pageSizes).containsExactly(3, 3, 3);
+	}
+
+	@Test
+	void reportsNoNextPageWhenTheLastPageIsExactlyFull() {
+		insert(accountId, otherAccountId, SAME_INSTANT);
+		insert(otherAccountId, accountId, SAME_INSTANT);
+
+		TransactionHistoryCursorResponse page = moneyTransferService.getTransactionHistoryByCursor(
+				userId, accountId, null, null, null, 2);
+
+		assertThat(page.getTransactions()).hasSize(2);
+		assertThat(page.isHasNext()).isFalse();
+		assertThat(page.getNextCursor()).isNull();
+	}
+
+	private UUID saveAccount(String number) {
+		Account account = accountRepository.saveAndFlush(new TurkishLiraAccount(userId, number, "Keyset", BigDecimal.ZERO));
+		return account.getId();
+	}
+
+	private Long insert(UUID from, UUID to, LocalDateTime createdAt) {
+		return jdbcTemplate.queryForObject(
+				"INSERT INTO minibanking_schema.transactions (id, from_account_id, to_account_id, amount, status, created_at, updated_at) " +
+				"VALUES (nextval('minibanking_schema.transactions_seq'), ?, ?, 1.00, 'SUCCESS', ?, ?) RETURNING id",
+				Long.class, from, to, createdAt, createdAt);
+	}
+}
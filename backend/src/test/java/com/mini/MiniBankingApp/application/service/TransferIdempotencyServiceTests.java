@@ -0,0 +1,278 @@
+package com.mini.MiniBankingApp.application.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mini.MiniBankingApp.application.dto.MoneyTransferRequest;
+import com.mini.MiniBankingApp.application.dto.MoneyTransferResponse;
+import com.mini.MiniBankingApp.domain.transaction.TransactionStatus;
+import com.mini.MiniBankingApp.exception.IdempotencyKeyConflictException;
+import com.mini.MiniBankingApp.exception.InsufficientFundsException;
+import com.mini.MiniBankingApp.exception.ServiceOverloadedException;
+import com.mini.MiniBankingApp.exception.TransferOutcomeUnknownException;
+import com.mini.MiniBankingApp.infrastructure.config.IdempotencyProperties;
+import com.mini.MiniBankingApp.infrastructure.repository.TransferIdempotencyKeyRepository;
+import com.mini.MiniBankingApp.infrastructure.repository.TransferIdempotencyKeyRepository.StoredKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransferIdempotencyServiceTests {
+
+	private static final UUID USER_ID = UUID.randomUUID();
+	private static final UUID FROM = UUID.randomUUID();
+	private static final UUID TO = UUID.randomUUID();
+	private static final String KEY = "transfer-1";
+
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+	private final IdempotencyProperties properties = new IdempotencyProperties();
+
+	private TransferIdempotencyKeyRepository repository;
+	private TransferIdempotencyService service;
+
+	@BeforeEach
+	void setUp() {
+		properties.setRetryAfter(Duration.ofSeconds(2));
+		repository = mock(TransferIdempotencyKeyRepository.class);
+		when(repository.tryClaim(any(), any(), any(), any(), any())).thenReturn(true);
+		service = new TransferIdempotencyService(repository, objectMapper, properties);
+	}
+
+	@Test
+	void replaysTheFirstResponseToARetry() {
+		CountingTransfer transfer = new CountingTransfer(response(1L));
+
+		MoneyTransferResponse first = service.execute(USER_ID, KEY, request("100.00"), transfer);
+		// Same transfer written with another scale is still the same request
+		MoneyTransferResponse retry = service.execute(USER_ID, KEY, request("100"), transfer);
+
+		assertThat(retry).isSameAs(first);
+		assertThat(transfer.calls()).isEqualTo(1);
+		verify(repository, times(1)).tryClaim(eq(USER_ID), eq(KEY), anyString(), any(), any());
+		verify(repository).complete(eq(USER_ID), eq(KEY), anyString());
+	}
+
+	@Test
+	void refusesAKeyReusedForADifferentTransfer() {
+		CountingTransfer transfer = new CountingTransfer(response(1L));
+		service.execute(USER_ID, KEY, request("100.00"), transfer);
+
+		assertThatThrownBy(() -> service.execute(USER_ID, KEY, request("250.00"), transfer))
+				.isInstanceOf(IdempotencyKeyConflictException.class);
+		assertThat(transfer.calls()).isEqualTo(1);
+	}
+
+	@Test
+	void keepsKeysOfDifferentUsersApart() {
+		CountingTransfer transfer = new CountingTransfer(response(1L));
+
+		service.execute(USER_ID, KEY, request("100.00"), transfer);
+		service.execute(UUID.randomUUID(), KEY, request("100.00"), transfer);
+
+		assertThat(transfer.calls()).isEqualTo(2);
+	}
+
+	@Test
+	void replaysAResponseStoredByAnotherInstance() {
+		MoneyTransferResponse original = response(7L);
+		service.execute(USER_ID, KEY, request("100.00"), new CountingTransfer(original));
+		ArgumentCaptor<String> requestHash = ArgumentCaptor.forClass(String.class);
+		ArgumentCaptor<String> storedResponse = ArgumentCaptor.forClass(String.class);
+		verify(repository).tryClaim(eq(USER_ID), eq(KEY), requestHash.capture(), any(), any());
+		verify(repository).complete(eq(USER_ID), eq(KEY), storedResponse.capture());
+
+		TransferIdempotencyKeyRepository otherRepository = mock(TransferIdempotencyKeyRepository.class);
+		when(otherRepository.tryClaim(any(), any(), any(), any(), any())).thenReturn(false);
+		when(otherRepository.find(eq(USER_ID), eq(KEY), any()))
+				.thenReturn(Optional.of(new StoredKey(requestHash.getValue(), storedResponse.getValue(), false)));
+		TransferIdempotencyService otherInstance = new TransferIdempotencyService(otherRepository, objectMapper, properties);
+		CountingTransfer transfer = new CountingTransfer(response(8L));
+
+		MoneyTransferResponse replayed = otherInstance.execute(USER_ID, KEY, request("100.00"), transfer);
+
+		assertThat(transfer.calls()).isZero();
+		assertThat(replayed).usingRecursiveComparison().isEqualTo(original);
+		assertThatThrownBy(() -> otherInstance.execute(USER_ID, KEY, request("1.00"), transfer))
+				.isInstanceOf(IdempotencyKeyConflictException.class);
+	}
+
+	@Test
+	void refusesADuplicateAtOnceWhileAnotherInstanceHoldsTheKey() {
+		String requestHash = requestHashOf(request("100.00"));
+		when(repository.tryClaim(any(), any(), any(), any(), any())).thenReturn(false);
+		when(repository.find(eq(USER_ID), eq(KEY), any()))
+				.thenReturn(Optional.of(new StoredKey(requestHash, null, false)));
+		CountingTransfer transfer = new CountingTransfer(response(1L));
+
+		assertThatThrownBy(() -> service.execute(USER_ID, KEY, request("100.00"), transfer))
+				.isInstanceOfSatisfying(IdempotencyKeyConflictException.class,
+						e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(2)));
+		assertThat(transfer.calls()).isZero();
+		verify(repository, times(1)).find(eq(USER_ID), eq(KEY), any());
+	}
+
+	@Test
+	void refusesADuplicateAtOnceWhileTheFirstRequestRunsOnThisInstance() {
+		AtomicInteger calls = new AtomicInteger();
+		Supplier<MoneyTransferResponse> transfer = () -> {
+			calls.incrementAndGet();
+			assertThatThrownBy(() -> service.execute(USER_ID, KEY, request("100.00"), new CountingTransfer(response(2L))))
+					.isInstanceOfSatisfying(IdempotencyKeyConflictException.class,
+							e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(2)));
+			return response(1L);
+		};
+
+		assertThat(service.execute(USER_ID, KEY, request("100.00"), transfer).getTransactionId()).isEqualTo(1L);
+		assertThat(calls.get()).isEqualTo(1);
+		verify(repository, times(1)).tryClaim(any(), any(), any(), any(), any());
+	}
+
+	@Test
+	void claimsAgainWhenTheFirstRequestReleasedTheKeyInBetween() {
+		when(repository.tryClaim(any(), any(), any(), any(), any())).thenReturn(false, true);
+		when(repository.find(any(), any(), any())).thenReturn(Optional.empty());
+		CountingTransfer transfer = new CountingTransfer(response(1L));
+
+		assertThat(service.execute(USER_ID, KEY, request("100.00"), transfer).getTransactionId()).isEqualTo(1L);
+		assertThat(transfer.calls()).isEqualTo(1);
+	}
+
+	@Test
+	void releasesTheKeyWhenTheTransferIsRejected() {
+		AtomicInteger calls = new AtomicInteger();
+		Supplier<MoneyTransferResponse> transfer = () -> {
+			if (calls.incrementAndGet() == 1) {
+				throw new InsufficientFundsException("Insufficient funds");
+			}
+			return response(2L);
+		};
+
+		assertThatThrownBy(() -> service.execute(USER_ID, KEY, request("100.00"), transfer))
+				.isInstanceOf(InsufficientFundsException.class);
+		verify(repository).release(USER_ID, KEY);
+
+		// Once the client has topped up the account the same key goes through
+		assertThat(service.execute(USER_ID, KEY, request("100.00"), transfer).getTransactionId()).isEqualTo(2L);
+		assertThat(calls.get()).isEqualTo(2);
+	}
+
+	@Test
+	void releasesTheKeyWhenTheTransferIsShed() {
+		Supplier<MoneyTransferResponse> transfer = () -> {
+			throw new ServiceOverloadedException("Ledger partition queue is full", Duration.ofSeconds(1));
+		};
+
+		assertThatThrownBy(() -> service.execute(USER_ID, KEY, request("100.00"), transfer))
+				.isInstanceOf(ServiceOverloadedException.class);
+
+		verify(repository).release(USER_ID, KEY);
+		verify(repository, never()).fail(any(), any());
+	}
+
+	@Test
+	void marksTheKeyFailedWhenTheOutcomeIsUnknown() {
+		AtomicInteger calls = new AtomicInteger();
+		Supplier<MoneyTransferResponse> transfer = () -> {
+			calls.incrementAndGet();
+			throw new TransferOutcomeUnknownException("Ledger did not acknowledge the transfer in time");
+		};
+
+		assertThatThrownBy(() -> service.execute(USER_ID, KEY, request("100.00"), transfer))
+				.isInstanceOf(TransferOutcomeUnknownException.class);
+		verify(repository).fail(USER_ID, KEY);
+		verify(repository, never()).release(any(), any());
+		verify(repository, never()).complete(any(), any(), any());
+
+		// A retry with the key gets the same answer straight away instead of running the transfer again
+		assertThatThrownBy(() -> service.execute(USER_ID, KEY, request("100.00"), transfer))
+				.isInstanceOf(TransferOutcomeUnknownException.class);
+		assertThat(calls.get()).isEqualTo(1);
+	}
+
+	@Test
+	void repeatsAnUnknownOutcomeStoredByAnotherInstance() {
+		String requestHash = requestHashOf(request("100.00"));
+		when(repository.tryClaim(any(), any(), any(), any(), any())).thenReturn(false);
+		when(repository.find(eq(USER_ID), eq(KEY), any()))
+				.thenReturn(Optional.of(new StoredKey(requestHash, null, true)));
+		CountingTransfer transfer = new CountingTransfer(response(1L));
+
+		assertThatThrownBy(() -> service.execute(USER_ID, KEY, request("100.00"), transfer))
+				.isInstanceOf(TransferOutcomeUnknownException.class);
+		assertThat(transfer.calls()).isZero();
+	}
+
+	@Test
+	void refusesBlankAndOverlongKeys() {
+		CountingTransfer transfer = new CountingTransfer(response(1L));
+
+		assertThatThrownBy(() -> service.execute(USER_ID, " ", request("100.00"), transfer))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> service.execute(USER_ID, "k".repeat(256), request("100.00"), transfer))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThat(transfer.calls()).isZero();
+	}
+
+	/**
+	 * The hash this service stores for a request, taken from a claim on a throwaway instance
+	 */
+	private String requestHashOf(MoneyTransferRequest request) {
+		TransferIdempotencyKeyRepository claims = mock(TransferIdempotencyKeyRepository.class);
+		when(claims.tryClaim(any(), any(), any(), any(), any())).thenReturn(true);
+		new TransferIdempotencyService(claims, objectMapper, properties)
+				.execute(USER_ID, KEY, request, new CountingTransfer(response(1L)));
+		ArgumentCaptor<String> requestHash = ArgumentCaptor.forClass(String.class);
+		verify(claims).tryClaim(any(), any(), requestHash.capture(), any(), any());
+		return requestHash.getValue();
+	}
+
+	private static MoneyTransferRequest request(String amount) {
+		MoneyTransferRequest request = new MoneyTransferRequest();
+		request.setFromAccountId(FROM);
+		request.setToAccountId(TO);
+		request.setAmount(new BigDecimal(amount));
+		return request;
+	}
+
+	private static MoneyTransferResponse response(Long transactionId) {
+		return new MoneyTransferResponse(transactionId, FROM, TO, new BigDecimal("100.00"),
+				TransactionStatus.SUCCESS, LocalDateTime.of(2025, 6, 1, 12, 0, 0, 123_456_000), "Transfer completed successfully");
+	}
+
+	private static final class CountingTransfer implements Supplier<MoneyTransferResponse> {
+
+		private final MoneyTransferResponse response;
+		private final AtomicInteger calls = new AtomicInteger();
+
+		CountingTransfer(MoneyTransferResponse response) {
+			this.response = response;
+		}
+
+		@Override
+		public MoneyTransferResponse get() {
+			calls.incrementAndGet();
+			return response;
+		}
+
+		int calls() {
+			return calls.get();
+		}
+	}
+}
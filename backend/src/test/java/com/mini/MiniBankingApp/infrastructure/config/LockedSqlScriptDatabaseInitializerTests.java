@@ -0,0 +1,105 @@
+package com.mini.MiniBankingApp.infrastructure.config;
+
+import com.mini.MiniBankingApp.EmbeddedPostgresInitializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Migration scripts run once per database and are recorded with their checksum
+ */
+@SpringBootTest
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+class LockedSqlScriptDatabaseInitializerTests {
+
+	private static final String SCRIPT = "T001__migration_counter.sql";
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@TempDir
+	private Path scripts;
+
+	@AfterEach
+	void removeScript() {
+		jdbcTemplate.update("DROP TABLE IF EXISTS minibanking_schema.migration_counter");
+		jdbcTemplate.update("DELETE FROM minibanking_schema.schema_migrations WHERE script = ?", SCRIPT);
+	}
+
+	@Test
+	void recordsTheApplicationScripts() {
+		assertThat(jdbcTemplate.queryForList("SELECT script FROM minibanking_schema.schema_migrations", String.class))
+				.contains("V001__long_id_sequences.sql", "V003__partition_transactions_by_month.sql");
+	}
+
+	@Test
+	void runsEachScriptOnce() throws IOException {
+		writeScript("INSERT INTO minibanking_schema.migration_counter VALUES (1);");
+
+		initializer().initializeDatabase();
+		initializer().initializeDatabase();
+
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT count(*) FROM minibanking_schema.migration_counter", Integer.class)).isEqualTo(1);
+	}
+
+	@Test
+	void refusesAScriptChangedAfterItWasApplied() throws IOException {
+		writeScript("INSERT INTO minibanking_schema.migration_counter VALUES (1);");
+		initializer().initializeDatabase();
+
+		writeScript("INSERT INTO minibanking_schema.migration_counter VALUES (2);");
+
+		assertThatThrownBy(() -> initializer().initializeDatabase())
+				.hasMessageContaining(SCRIPT);
+		assertThat(jdbcTemplate.queryForList(
+				"SELECT n FROM minibanking_schema.migration_counter", Integer.class)).containsExactly(1);
+	}
+
+	@Test
+	void recordsNothingWhenAScriptFails() throws IOException {
+		Files.writeString(scripts.resolve(SCRIPT),
+				"CREATE TABLE minibanking_schema.migration_counter (n integer);\nSELECT missing_function();");
+
+		assertThatThrownBy(() -> initializer().initializeDatabase());
+
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT count(*) FROM minibanking_schema.schema_migrations WHERE script = ?", Integer.class, SCRIPT))
+				.isZero();
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT to_regclass('minibanking_schema.migration_counter') IS NULL", Boolean.class)).isTrue();
+	}
+
+	private void writeScript(String insert) throws IOException {
+		Files.writeString(scripts.resolve(SCRIPT),
+				"CREATE TABLE IF NOT EXISTS minibanking_schema.migration_counter (n integer);\n" + insert);
+	}
+
+	private LockedSqlScriptDatabaseInitializer initializer() {
+		SqlInitializationProperties properties = new SqlInitializationProperties();
+		properties.setMode(DatabaseInitializationMode.ALWAYS);
+		properties.setSchemaLocations(List.of("file:" + scripts.toAbsolutePath() + "/*.sql"));
+		LockedSqlScriptDatabaseInitializer initializer = new LockedSqlScriptDatabaseInitializer(dataSource, properties);
+		initializer.setResourceLoader(new DefaultResourceLoader());
+		return initializer;
+	}
+}
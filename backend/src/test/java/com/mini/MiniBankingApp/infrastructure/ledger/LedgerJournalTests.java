@@ -0,0 +1,117 @@
+package com.mini.MiniBankingApp.infrastructure.ledger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LedgerJournalTests {
+
+	private static final int RECORDS_PER_SEGMENT = 4;
+	private static final UUID FROM = UUID.randomUUID();
+	private static final UUID TO = UUID.randomUUID();
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void replaysAppendedRecordsAfterReopening() {
+		LedgerJournal journal = LedgerJournal.open(directory, 0, RECORDS_PER_SEGMENT, 0);
+		for (long i = 1; i <= 6; i++) {
+			journal.append(100 + i, FROM, TO, i * 10, i * 1_000);
+		}
+		journal.force();
+
+		LedgerJournal reopened = LedgerJournal.open(directory, 0, RECORDS_PER_SEGMENT, 0);
+
+		assertThat(reopened.lastSequence()).isEqualTo(6);
+		List<JournalEntry> entries = replay(reopened, 0);
+		assertThat(entries).extracting(JournalEntry::sequence).containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+		assertThat(entries.get(4)).isEqualTo(new JournalEntry(5, 105, FROM, TO, 50, 5_000));
+	}
+
+	@Test
+	void replaysOnlyRecordsAfterTheGivenSequence() {
+		LedgerJournal journal = LedgerJournal.open(directory, 0, RECORDS_PER_SEGMENT, 0);
+		for (long i = 1; i <= 6; i++) {
+			journal.append(100 + i, FROM, TO, i, i);
+		}
+
+		assertThat(replay(journal, 4)).extracting(JournalEntry::transactionId).containsExactly(105L, 106L);
+		assertThat(replay(journal, 6)).isEmpty();
+	}
+
+	@Test
+	void stopsAtTornRecordAndOverwritesItOnNextAppend() throws IOException {
+		LedgerJournal journal = LedgerJournal.open(directory, 0, RECORDS_PER_SEGMENT, 0);
+		journal.append(101, FROM, TO, 10, 1);
+		journal.append(102, FROM, TO, 20, 2);
+		journal.append(103, FROM, TO, 30, 3);
+		journal.force();
+
+		// Flip a byte of the third record's amount, as a crash in the middle of the write would leave it
+		corrupt(directory.resolve("partition-0-00000000.journal"), 2L * LedgerJournal.RECORD_SIZE + 48);
+
+		LedgerJournal reopened = LedgerJournal.open(directory, 0, RECORDS_PER_SEGMENT, 0);
+		assertThat(reopened.lastSequence()).isEqualTo(2);
+		assertThat(replay(reopened, 0)).extracting(JournalEntry::transactionId).containsExactly(101L, 102L);
+
+		JournalEntry appended = reopened.append(104, FROM, TO, 40, 4);
+		reopened.force();
+		assertThat(appended.sequence()).isEqualTo(3);
+
+		LedgerJournal recovered = LedgerJournal.open(directory, 0, RECORDS_PER_SEGMENT, 0);
+		assertThat(replay(recovered, 0)).extracting(JournalEntry::transactionId).containsExactly(101L, 102L, 104L);
+	}
+
+	@Test
+	void continuesAfterPersistedSequenceWhenSegmentsWereDeleted() {
+		LedgerJournal journal = LedgerJournal.open(directory, 0, RECORDS_PER_SEGMENT, 0);
+		for (long i = 1; i <= 6; i++) {
+			journal.append(100 + i, FROM, TO, i, i);
+		}
+		journal.force();
+		journal.deleteSegmentsUpTo(4);
+
+		assertThat(Files.exists(directory.resolve("partition-0-00000000.journal"))).isFalse();
+		assertThat(Files.exists(directory.resolve("partition-0-00000001.journal"))).isTrue();
+
+		LedgerJournal reopened = LedgerJournal.open(directory, 0, RECORDS_PER_SEGMENT, 4);
+		assertThat(reopened.lastSequence()).isEqualTo(6);
+		assertThat(replay(reopened, 4)).extracting(JournalEntry::transactionId).containsExactly(105L, 106L);
+	}
+
+	@Test
+	void startsAfterPersistedSequenceWhenNoSegmentIsLeft() {
+		LedgerJournal journal = LedgerJournal.open(directory, 0, RECORDS_PER_SEGMENT, 8);
+
+		assertThat(journal.lastSequence()).isEqualTo(8);
+		assertThat(journal.append(109, FROM, TO, 1, 1).sequence()).isEqualTo(9);
+	}
+
+	private static List<JournalEntry> replay(LedgerJournal journal, long afterSequence) {
+		List<JournalEntry> entries = new ArrayList<>();
+		journal.replay(afterSequence, entries::add);
+		return entries;
+	}
+
+	private static void corrupt(Path file, long position) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer single = ByteBuffer.allocate(1);
+			channel.read(single, position);
+			single.put(0, (byte) (single.get(0) ^ 0xFF));
+			single.rewind();
+			channel.write(single, position);
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package com.mini.MiniBankingApp.infrastructure.ledger;
+
+import com.mini.MiniBankingApp.domain.transaction.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LedgerPartitionTests {
+
+	private static final UUID USER_ID = UUID.randomUUID();
+	private static final UUID FROM = UUID.randomUUID();
+	private static final UUID TO = UUID.randomUUID();
+
+	private LedgerPartition partition;
+
+	@AfterEach
+	void stopPartition() throws InterruptedException {
+		if (partition != null) {
+			partition.stop();
+		}
+	}
+
+	@Test
+	void failsWaitingTransfersAndRejectsNewOnesWhenTheJournalCannotBeForced() throws Exception {
+		LedgerJournal journal = mock(LedgerJournal.class);
+		when(journal.append(anyLong(), any(), any(), anyLong(), anyLong()))
+				.thenAnswer(invocation -> new JournalEntry(1, invocation.getArgument(0), FROM, TO,
+						invocation.getArgument(3), invocation.getArgument(4)));
+		UncheckedIOException diskFull = new UncheckedIOException(new IOException("No space left on device"));
+		doThrow(diskFull).when(journal).force();
+
+		Map<UUID, LedgerAccount> accounts = Map.of(
+				FROM, new LedgerAccount(USER_ID, "TRY"),
+				TO, new LedgerAccount(UUID.randomUUID(), "TRY"));
+		Map<UUID, long[]> balances = new HashMap<>();
+		balances.put(FROM, new long[]{10_000});
+		TransactionIdAllocator transactionIds = new TransactionIdAllocator(() -> 1L, 50, Runnable::run);
+		LedgerPartition[] self = new LedgerPartition[1];
+		partition = new LedgerPartition(0, journal, mock(LedgerStore.class), transactionIds, accounts, balances,
+				accountId -> self[0], 64, true, 10);
+		self[0] = partition;
+		partition.start();
+
+		CompletableFuture<Transaction> result = new CompletableFuture<>();
+		assertThat(partition.submit(transfer(result))).isTrue();
+
+		assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+				.isInstanceOf(ExecutionException.class)
+				.hasCause(diskFull);
+		assertThat(partition.isFailed()).isTrue();
+		assertThat(partition.submit(transfer(new CompletableFuture<>()))).isFalse();
+	}
+
+	private static LedgerPartition.Transfer transfer(CompletableFuture<Transaction> result) {
+		return new LedgerPartition.Transfer(USER_ID, FROM, TO, new BigDecimal("1.00"), 100, result);
+	}
+}
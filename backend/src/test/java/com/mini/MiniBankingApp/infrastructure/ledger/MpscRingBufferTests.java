@@ -0,0 +1,113 @@
+package com.mini.MiniBankingApp.infrastructure.ledger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MpscRingBufferTests {
+
+	@Test
+	void roundsCapacityUpToPowerOfTwo() {
+		MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(5);
+
+		for (int i = 0; i < 8; i++) {
+			assertThat(buffer.offer(i)).isTrue();
+		}
+		assertThat(buffer.offer(8)).isFalse();
+	}
+
+	@Test
+	void pollsInOfferOrderAndReturnsNullWhenEmpty() {
+		MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+		assertThat(buffer.isEmpty()).isTrue();
+		assertThat(buffer.poll()).isNull();
+
+		buffer.offer(1);
+		buffer.offer(2);
+		buffer.offer(3);
+
+		assertThat(buffer.isEmpty()).isFalse();
+		assertThat(buffer.poll()).isEqualTo(1);
+		assertThat(buffer.poll()).isEqualTo(2);
+		assertThat(buffer.poll()).isEqualTo(3);
+		assertThat(buffer.poll()).isNull();
+		assertThat(buffer.isEmpty()).isTrue();
+	}
+
+	@Test
+	void reusesSlotsAfterWrappingAround() {
+		MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+
+		for (int round = 0; round < 10; round++) {
+			for (int i = 0; i < 4; i++) {
+				assertThat(buffer.offer(round * 4 + i)).isTrue();
+			}
+			assertThat(buffer.offer(-1)).isFalse();
+			for (int i = 0; i < 4; i++) {
+				assertThat(buffer.poll()).isEqualTo(round * 4 + i);
+			}
+		}
+		assertThat(buffer.poll()).isNull();
+	}
+
+	@Test
+	void keepsEachProducersOrderAndLosesNothing() throws Exception {
+		int producers = 4;
+		int perProducer = 50_000;
+		MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(1_024);
+		ExecutorService executor = Executors.newFixedThreadPool(producers);
+		CountDownLatch start = new CountDownLatch(1);
+
+		try {
+			for (int producer = 0; producer < producers; producer++) {
+				long id = producer;
+				executor.execute(() -> {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+					for (long value = 0; value < perProducer; value++) {
+						long[] element = {id, value};
+						while (!buffer.offer(element)) {
+							Thread.onSpinWait();
+						}
+					}
+				});
+			}
+			start.countDown();
+
+			long[] next = new long[producers];
+			List<String> outOfOrder = new ArrayList<>();
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+			for (int received = 0; received < producers * perProducer; ) {
+				long[] element = buffer.poll();
+				if (element == null) {
+					assertThat(System.nanoTime()).as("consumer timed out").isLessThan(deadline);
+					Thread.onSpinWait();
+					continue;
+				}
+				int producer = (int) element[0];
+				if (element[1] != next[producer]) {
+					outOfOrder.add(producer + ":" + element[1]);
+				}
+				next[producer] = element[1] + 1;
+				received++;
+			}
+
+			assertThat(outOfOrder).isEmpty();
+			assertThat(next).containsOnly(perProducer);
+			assertThat(buffer.poll()).isNull();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package com.mini.MiniBankingApp.infrastructure.ledger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionIdAllocatorTests {
+
+	@Test
+	void handsOutConsecutiveIdsOfEachReservedBlock() {
+		Sequence sequence = new Sequence(10);
+		TransactionIdAllocator allocator = new TransactionIdAllocator(sequence::nextval, 10, Runnable::run);
+
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 25; i++) {
+			ids.add(allocator.next());
+		}
+
+		assertThat(ids.subList(0, 10)).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+		assertThat(ids.subList(10, 20)).containsExactly(11L, 12L, 13L, 14L, 15L, 16L, 17L, 18L, 19L, 20L);
+		assertThat(ids.subList(20, 25)).containsExactly(21L, 22L, 23L, 24L, 25L);
+	}
+
+	@Test
+	void reservesTheNextBlockBeforeTheCurrentOneRunsOut() {
+		Sequence sequence = new Sequence(10);
+		List<Runnable> background = new ArrayList<>();
+		Executor deferred = background::add;
+		TransactionIdAllocator allocator = new TransactionIdAllocator(sequence::nextval, 10, deferred);
+
+		// The first block is reserved when the allocator is created
+		assertThat(background).hasSize(1);
+		background.remove(0).run();
+
+		for (int i = 0; i < 5; i++) {
+			allocator.next();
+		}
+		assertThat(background).isEmpty();
+
+		// Half of the block is left after the sixth ID
+		assertThat(allocator.next()).isEqualTo(6L);
+		assertThat(background).hasSize(1);
+		background.remove(0).run();
+		assertThat(sequence.calls()).isEqualTo(2);
+
+		for (int i = 0; i < 4; i++) {
+			allocator.next();
+		}
+		assertThat(allocator.next()).isEqualTo(11L);
+		assertThat(sequence.calls()).isEqualTo(2);
+	}
+
+	@Test
+	void reservesInlineWhenTheBackgroundReservationFailed() {
+		AtomicInteger attempts = new AtomicInteger();
+		Sequence sequence = new Sequence(10);
+		TransactionIdAllocator allocator = new TransactionIdAllocator(() -> {
+			if (attempts.incrementAndGet() == 1) {
+				throw new IllegalStateException("connection refused");
+			}
+			return sequence.nextval();
+		}, 10, Runnable::run);
+
+		assertThat(allocator.next()).isEqualTo(1L);
+		assertThat(attempts.get()).isEqualTo(2);
+	}
+
+	/**
+	 * transactions_seq with the given increment
+	 */
+	private static final class Sequence {
+
+		private final long increment;
+		private final AtomicLong value = new AtomicLong(1);
+		private final AtomicInteger calls = new AtomicInteger();
+
+		Sequence(long increment) {
+			this.increment = increment;
+		}
+
+		long nextval() {
+			calls.incrementAndGet();
+			return value.getAndAdd(increment);
+		}
+
+		int calls() {
+			return calls.get();
+		}
+	}
+}
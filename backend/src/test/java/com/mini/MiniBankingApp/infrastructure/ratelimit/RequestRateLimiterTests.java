@@ -0,0 +1,132 @@
+package com.mini.MiniBankingApp.infrastructure.ratelimit;
+
+import com.mini.MiniBankingApp.exception.RateLimitExceededException;
+import com.mini.MiniBankingApp.infrastructure.config.RateLimitProperties;
+import com.mini.MiniBankingApp.infrastructure.config.RateLimitProperties.KeyType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+class RequestRateLimiterTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final MockHttpServletRequest transfer = new MockHttpServletRequest("POST", "/api/transfers");
+
+	@Test
+	void allowsBurstUpToCapacityThenRejectsWithRetryAfter() {
+		RequestRateLimiter limiter = limiter(KeyType.USER, 2, Duration.ofSeconds(2));
+
+		limiter.check(transfer, KeyType.USER, "user");
+		limiter.check(transfer, KeyType.USER, "user");
+		RateLimitExceededException rejected = catchThrowableOfType(RateLimitExceededException.class,
+				() -> limiter.check(transfer, KeyType.USER, "user"));
+
+		assertThat(rejected).isNotNull();
+		assertThat(rejected.getRetryAfter()).isPositive().isLessThanOrEqualTo(Duration.ofSeconds(1));
+		assertThat(meterRegistry.counter("rate.limit.rejected", "rule", "transfers").count()).isEqualTo(1);
+	}
+
+	@Test
+	void allowsAgainOnceAnIntervalHasPassed() throws InterruptedException {
+		RequestRateLimiter limiter = limiter(KeyType.USER, 2, Duration.ofMillis(200));
+
+		limiter.check(transfer, KeyType.USER, "user");
+		limiter.check(transfer, KeyType.USER, "user");
+		assertThatThrownBy(() -> limiter.check(transfer, KeyType.USER, "user"))
+				.isInstanceOf(RateLimitExceededException.class);
+
+		// One token comes back every 100ms
+		Thread.sleep(150);
+
+		assertThatCode(() -> limiter.check(transfer, KeyType.USER, "user")).doesNotThrowAnyException();
+		assertThatThrownBy(() -> limiter.check(transfer, KeyType.USER, "user"))
+				.isInstanceOf(RateLimitExceededException.class);
+	}
+
+	@Test
+	void takesPermitsAllOrNone() {
+		RequestRateLimiter limiter = limiter(KeyType.USER, 3, Duration.ofSeconds(3));
+
+		limiter.check(transfer, KeyType.USER, "user");
+		assertThatThrownBy(() -> limiter.check(transfer, KeyType.USER, "user", 3))
+				.isInstanceOf(RateLimitExceededException.class);
+
+		// The rejected batch took nothing, so the rest of the burst is still there
+		limiter.check(transfer, KeyType.USER, "user", 2);
+		assertThatThrownBy(() -> limiter.check(transfer, KeyType.USER, "user"))
+				.isInstanceOf(RateLimitExceededException.class);
+	}
+
+	@Test
+	void refusesMorePermitsThanTheCapacityUpFront() {
+		RequestRateLimiter limiter = limiter(KeyType.USER, 2, Duration.ofSeconds(2));
+
+		// A full bucket could never grant them, so this is a bad request rather than a Retry-After
+		assertThatThrownBy(() -> limiter.check(transfer, KeyType.USER, "user", 3))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("at most 2");
+
+		// Nothing was taken
+		limiter.check(transfer, KeyType.USER, "user", 2);
+	}
+
+	@Test
+	void keepsAccountBucketsPerCaller() {
+		RequestRateLimiter limiter = limiter(KeyType.ACCOUNT, 1, Duration.ofSeconds(2));
+		String account = UUID.randomUUID().toString();
+		String owner = RequestRateLimiter.accountKey(UUID.randomUUID(), account);
+		String stranger = RequestRateLimiter.accountKey(UUID.randomUUID(), account);
+
+		limiter.check(transfer, KeyType.ACCOUNT, stranger);
+		assertThatThrownBy(() -> limiter.check(transfer, KeyType.ACCOUNT, stranger))
+				.isInstanceOf(RateLimitExceededException.class);
+
+		assertThatCode(() -> limiter.check(transfer, KeyType.ACCOUNT, owner)).doesNotThrowAnyException();
+		assertThat(RequestRateLimiter.accountKey(UUID.randomUUID(), null)).isNull();
+	}
+
+	@Test
+	void ignoresRequestsOutsideTheRule() {
+		RequestRateLimiter limiter = limiter(KeyType.USER, 1, Duration.ofSeconds(2));
+		MockHttpServletRequest history = new MockHttpServletRequest("GET", "/api/transfers");
+		MockHttpServletRequest accounts = new MockHttpServletRequest("POST", "/api/accounts");
+
+		for (int i = 0; i < 5; i++) {
+			limiter.check(history, KeyType.USER, "user");
+			limiter.check(accounts, KeyType.USER, "user");
+			limiter.check(transfer, KeyType.ACCOUNT, "user");
+			limiter.check(transfer, KeyType.USER, null);
+		}
+
+		assertThatCode(() -> limiter.check(transfer, KeyType.USER, "user")).doesNotThrowAnyException();
+	}
+
+	@Test
+	void refusesRulesWithoutCapacity() {
+		assertThatThrownBy(() -> limiter(KeyType.USER, 0, Duration.ofSeconds(1)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private RequestRateLimiter limiter(KeyType keyType, int capacity, Duration period) {
+		RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+		rule.setName("transfers");
+		rule.setMethod("POST");
+		rule.setPath("/api/transfers/**");
+		rule.setKey(keyType);
+		rule.setCapacity(capacity);
+		rule.setPeriod(period);
+
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.setRules(List.of(rule));
+		return new RequestRateLimiter(properties, meterRegistry);
+	}
+}
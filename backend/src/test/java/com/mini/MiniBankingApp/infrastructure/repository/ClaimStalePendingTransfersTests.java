@@ -0,0 +1,107 @@
+package com.mini.MiniBankingApp.infrastructure.repository;
+
+import com.mini.MiniBankingApp.EmbeddedPostgresInitializer;
+import com.mini.MiniBankingApp.domain.account.TurkishLiraAccount;
+import com.mini.MiniBankingApp.domain.transaction.Transaction;
+import com.mini.MiniBankingApp.domain.user.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Instances resuming pending transfers claim them in batches; a claimed row is leased by bumping updated_at,
+ * so neither a concurrent claim nor the next batch picks it up again
+ */
+@SpringBootTest
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+class ClaimStalePendingTransfersTests {
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private UUID userId;
+	private UUID fromAccountId;
+	private UUID toAccountId;
+	private Long firstStale;
+	private Long secondStale;
+	private Long fresh;
+
+	@BeforeEach
+	void createPendingTransfers() {
+		String suffix = UUID.randomUUID().toString().substring(0, 8);
+		userId = userRepository.save(new User("resume-" + suffix, "password", "resume-" + suffix + "@example.com")).getId();
+		fromAccountId = accountRepository.save(new TurkishLiraAccount(userId, "RS1" + suffix, "Source", new BigDecimal("100.00"))).getId();
+		toAccountId = accountRepository.save(new TurkishLiraAccount(userId, "RS2" + suffix, "Target", BigDecimal.ZERO)).getId();
+
+		firstStale = pendingTransfer();
+		secondStale = pendingTransfer();
+		fresh = pendingTransfer();
+		jdbcTemplate.update("UPDATE minibanking_schema.transactions SET updated_at = now() - interval '10 minutes' " +
+				"WHERE id IN (?, ?)", firstStale, secondStale);
+	}
+
+	@AfterEach
+	void removePendingTransfers() {
+		jdbcTemplate.update("DELETE FROM minibanking_schema.transactions WHERE from_account_id = ?", fromAccountId);
+		accountRepository.deleteAllById(List.of(fromAccountId, toAccountId));
+		userRepository.deleteById(userId);
+	}
+
+	@Test
+	void claimsStaleTransfersOneBatchAtATimeAndSkipsFreshOnes() {
+		assertThat(claim(1)).containsExactly(firstStale);
+		assertThat(claim(1)).containsExactly(secondStale);
+		assertThat(claim(10)).isEmpty();
+		assertThat(transactionRepository.findById(fresh)).isPresent();
+	}
+
+	@Test
+	void concurrentClaimsGetDisjointRows() throws Exception {
+		List<Long> otherClaim = transactionTemplate.execute(status -> {
+			List<Long> claimed = claim(1);
+			assertThat(claimed).containsExactly(firstStale);
+			// The first row stays locked until this transaction commits, so the other instance skips it
+			return CompletableFuture.supplyAsync(() -> claim(10)).orTimeout(10, TimeUnit.SECONDS).join();
+		});
+
+		assertThat(otherClaim).containsExactly(secondStale);
+	}
+
+	private List<Long> claim(int limit) {
+		LocalDateTime now = LocalDateTime.now();
+		return transactionRepository.claimStalePending(now.minusMinutes(1), now, limit).stream()
+				.map(Transaction::getId)
+				.toList();
+	}
+
+	private Long pendingTransfer() {
+		return transactionRepository.save(
+				Transaction.createPendingTransaction(fromAccountId, toAccountId, BigDecimal.ONE)).getId();
+	}
+}
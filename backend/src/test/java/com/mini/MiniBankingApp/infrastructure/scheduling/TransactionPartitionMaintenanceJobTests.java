@@ -0,0 +1,77 @@
+package com.mini.MiniBankingApp.infrastructure.scheduling;
+
+import com.mini.MiniBankingApp.EmbeddedPostgresInitializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+class TransactionPartitionMaintenanceJobTests {
+
+	private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+	@Autowired
+	private TransactionPartitionMaintenanceJob job;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final LocalDate missedMonth = LocalDate.now().withDayOfMonth(1).minusMonths(2);
+	private Long transactionId;
+
+	@AfterEach
+	void removeMissedMonth() {
+		jdbcTemplate.update("DELETE FROM minibanking_schema.transactions WHERE id = ?", transactionId);
+		for (LocalDate month = missedMonth; month.isBefore(LocalDate.now().withDayOfMonth(1)); month = month.plusMonths(1)) {
+			jdbcTemplate.execute("DROP TABLE IF EXISTS minibanking_schema." + partitionName(month));
+		}
+	}
+
+	@Test
+	void movesRowsOfAMissedMonthOutOfTheDefaultPartition() {
+		assertThat(partitionExists(missedMonth)).isFalse();
+		transactionId = jdbcTemplate.queryForObject(
+				"INSERT INTO minibanking_schema.transactions " +
+				"(id, from_account_id, to_account_id, amount, status, created_at, updated_at) " +
+				"VALUES (nextval('minibanking_schema.transactions_seq'), ?, ?, 1.00, 'SUCCESS', ?, ?) RETURNING id",
+				Long.class, UUID.randomUUID(), UUID.randomUUID(),
+				missedMonth.atStartOfDay().plusDays(14), LocalDateTime.now());
+		assertThat(partitionOf(transactionId)).isEqualTo("transactions_default");
+
+		job.maintainPartitions();
+
+		assertThat(partitionExists(missedMonth)).isTrue();
+		assertThat(partitionExists(missedMonth.plusMonths(1))).isTrue();
+		assertThat(partitionOf(transactionId)).isEqualTo(partitionName(missedMonth));
+
+		// A later run finds nothing left to do
+		job.maintainPartitions();
+		assertThat(partitionOf(transactionId)).isEqualTo(partitionName(missedMonth));
+	}
+
+	private boolean partitionExists(LocalDate month) {
+		return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+				"SELECT to_regclass(?) IS NOT NULL", Boolean.class, "minibanking_schema." + partitionName(month)));
+	}
+
+	private String partitionOf(Long id) {
+		return jdbcTemplate.queryForObject(
+				"SELECT c.relname FROM minibanking_schema.transactions t JOIN pg_class c ON c.oid = t.tableoid " +
+				"WHERE t.id = ?", String.class, id);
+	}
+
+	private static String partitionName(LocalDate month) {
+		return "transactions_p" + month.format(PARTITION_SUFFIX);
+	}
+}
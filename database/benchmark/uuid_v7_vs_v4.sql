@@ -0,0 +1,87 @@
+-- Compares random (v4) and time-ordered (v7) UUID primary keys.
+-- Inserts the same synthetic rows into two tables shaped like minibanking_schema.accounts
+-- in many small transactions and reports insert time, index size and leaf density.
+--
+-- Usage: psql -d minibanking -v rows=2000000 -v batch=1000 -f database/benchmark/uuid_v7_vs_v4.sql
+-- Requires PostgreSQL 13+ (gen_random_uuid) and the pgstattuple extension.
+
+\if :{?rows}
+\else
+\set rows 2000000
+\endif
+\if :{?batch}
+\else
+\set batch 1000
+\endif
+
+\timing off
+SET client_min_messages = warning;
+CREATE EXTENSION IF NOT EXISTS pgstattuple;
+
+CREATE SCHEMA IF NOT EXISTS uuid_benchmark;
+DROP TABLE IF EXISTS uuid_benchmark.accounts_v4, uuid_benchmark.accounts_v7;
+
+CREATE TABLE uuid_benchmark.accounts_v4 (
+    id         uuid PRIMARY KEY,
+    user_id    uuid          NOT NULL,
+    number     varchar(255)  NOT NULL,
+    name       varchar(255)  NOT NULL,
+    balance    numeric(19,2) NOT NULL,
+    created_at timestamp     NOT NULL,
+    updated_at timestamp     NOT NULL
+);
+CREATE TABLE uuid_benchmark.accounts_v7 (LIKE uuid_benchmark.accounts_v4 INCLUDING ALL);
+
+-- Same bit layout as UuidV7: 48-bit millisecond timestamp, version 7, random tail
+CREATE OR REPLACE FUNCTION uuid_benchmark.uuid_v7() RETURNS uuid AS $$
+    SELECT encode(
+        set_bit(
+            set_bit(
+                overlay(uuid_send(gen_random_uuid())
+                        placing substring(int8send(floor(extract(epoch FROM clock_timestamp()) * 1000)::bigint) FROM 3)
+                        FROM 1 FOR 6),
+                52, 1),
+            53, 1),
+        'hex')::uuid;
+$$ LANGUAGE sql VOLATILE;
+
+-- Commits every batch, like the application inserting accounts one request at a time
+CREATE OR REPLACE PROCEDURE uuid_benchmark.fill(target regclass, v7 boolean, total int, batch int) AS $$
+DECLARE
+    done int := 0;
+BEGIN
+    WHILE done < total LOOP
+        EXECUTE format(
+            'INSERT INTO %s SELECT %s, gen_random_uuid(), ''ACC'' || g, ''Account '' || g, 0, now(), now() '
+            'FROM generate_series($1, $2) g',
+            target, CASE WHEN v7 THEN 'uuid_benchmark.uuid_v7()' ELSE 'gen_random_uuid()' END)
+        USING done + 1, least(done + batch, total);
+        done := done + batch;
+        COMMIT;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+CHECKPOINT;
+\echo 'Random v4 keys:'
+\timing on
+CALL uuid_benchmark.fill('uuid_benchmark.accounts_v4', false, :rows, :batch);
+\timing off
+
+CHECKPOINT;
+\echo 'Time-ordered v7 keys:'
+\timing on
+CALL uuid_benchmark.fill('uuid_benchmark.accounts_v7', true, :rows, :batch);
+\timing off
+
+SELECT 'v4' AS key_type,
+       pg_size_pretty(pg_relation_size('uuid_benchmark.accounts_v4_pkey')) AS pk_index_size,
+       (pgstatindex('uuid_benchmark.accounts_v4_pkey')).avg_leaf_density,
+       (pgstatindex('uuid_benchmark.accounts_v4_pkey')).leaf_fragmentation
+UNION ALL
+SELECT 'v7',
+       pg_size_pretty(pg_relation_size('uuid_benchmark.accounts_v7_pkey')),
+       (pgstatindex('uuid_benchmark.accounts_v7_pkey')).avg_leaf_density,
+       (pgstatindex('uuid_benchmark.accounts_v7_pkey')).leaf_fragmentation;
+
+DROP SCHEMA uuid_benchmark CASCADE;